@@ -0,0 +1,146 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * BinaryGameResultSink - writes game results to a buffered binary file.  The file begins with a magic number and format
+ * version.  Each record is the seed (long), game time budget in milliseconds (long), player (UTF), system (UTF),
+ * score (int), move clock (byte, its ordinal), whether the player was seeded before the game (boolean), the player's
+ * seed (long) and fixed simulations per candidate play (int), then the wall-clock, CPU and garbage collection pause microseconds of each move (int), each preceded by
+ * its number of moves (byte, 0 if not recorded), and the cards dealt and the row-major positions played (byte each,
+ * -1 for a malformed play), each preceded by its length (byte).  A record thus holds every field of a GameResult.
+ * Results can be read back with readAll.
+ *
+ * Version 1 files, written before the header was added, held only the seed, player, system, score and wall-clock
+ * microseconds of each move, and version 2 files lacked the move clock and the player's seed and fixed simulations.
+ * Neither can be read.
+ */
+public class BinaryGameResultSink implements GameResultSink {
+
+	public static final int MAGIC = 0x50534752; // "PSGR"
+	public static final int VERSION = 3; // file format version
+	private final DataOutputStream out; // buffered output
+
+	/**
+	 * Create a binary sink writing to the given file, replacing its contents.
+	 * @param path path of the binary file
+	 * @throws IOException if the file cannot be opened or written
+	 */
+	public BinaryGameResultSink(String path) throws IOException {
+		out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16));
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+	}
+
+	/* (non-Javadoc)
+	 * @see GameResultSink#record(GameResult)
+	 */
+	@Override
+	public synchronized void record(GameResult result) {
+		try {
+			out.writeLong(result.seed);
+			out.writeLong(result.gameMillis);
+			out.writeUTF(result.player);
+			out.writeUTF(result.system);
+			out.writeInt(result.score);
+			out.writeByte(result.moveClock.ordinal());
+			out.writeBoolean(result.playerSeeded);
+			out.writeLong(result.playerSeed);
+			out.writeInt(result.fixedSimulations);
+			writeMicros(result.moveNanos);
+			writeMicros(result.moveCpuNanos);
+			writeMicros(result.moveGcNanos);
+			out.writeByte(result.deal.length);
+			out.write(result.deal);
+			out.writeByte(result.plays.length);
+			out.write(result.plays);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Write the number of moves and the microseconds of each move.
+	 * @param nanos nanoseconds of each move
+	 * @throws IOException if the times cannot be written
+	 */
+	private void writeMicros(long[] nanos) throws IOException {
+		out.writeByte(nanos.length);
+		for (long n : nanos)
+			out.writeInt((int) Math.min(Integer.MAX_VALUE, n / 1000));
+	}
+
+	/* (non-Javadoc)
+	 * @see GameResultSink#close()
+	 */
+	@Override
+	public synchronized void close() {
+		try {
+			out.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Read all game results from a binary file written by this sink.
+	 * @param path path of the binary file
+	 * @return game results in recorded order
+	 * @throws IOException if the file cannot be read or is not a results file of the current version
+	 */
+	public static ArrayList<GameResult> readAll(String path) throws IOException {
+		ArrayList<GameResult> results = new ArrayList<GameResult>();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path)))) {
+			if (in.readInt() != MAGIC)
+				throw new IOException(path + " is not a binary game results file of version " + VERSION + ".");
+			int version = in.readByte();
+			if (version != VERSION)
+				throw new IOException("Unsupported binary game results version " + version + ".");
+			while (true) {
+				long seed;
+				try {
+					seed = in.readLong();
+				} catch (EOFException e) {
+					break;
+				}
+				long gameMillis = in.readLong();
+				String player = in.readUTF();
+				String system = in.readUTF();
+				int score = in.readInt();
+				MoveClock moveClock = MoveClock.values()[in.readByte()];
+				boolean playerSeeded = in.readBoolean();
+				long playerSeed = in.readLong();
+				int fixedSimulations = in.readInt();
+				long[] moveNanos = readMicros(in);
+				long[] moveCpuNanos = readMicros(in);
+				long[] moveGcNanos = readMicros(in);
+				byte[] deal = new byte[in.readUnsignedByte()];
+				in.readFully(deal);
+				byte[] plays = new byte[in.readUnsignedByte()];
+				in.readFully(plays);
+				results.add(new GameResult(seed, player, system, score, moveNanos, moveCpuNanos, moveGcNanos, deal,
+						plays, gameMillis, moveClock, playerSeeded, playerSeed, fixedSimulations));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Read the number of moves and the microseconds of each move.
+	 * @param in input
+	 * @return nanoseconds of each move
+	 * @throws IOException if the times cannot be read
+	 */
+	private static long[] readMicros(DataInputStream in) throws IOException {
+		long[] nanos = new long[in.readUnsignedByte()];
+		for (int i = 0; i < nanos.length; i++)
+			nanos[i] = in.readInt() * 1000L;
+		return nanos;
+	}
+}
@@ -0,0 +1,171 @@
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * BudgetCurveBenchmark - measures score-versus-budget curves of Monte Carlo players on a shared fixed set of seeded
+ * British deals.  Each player is run at a series of per-game time budgets and at a series of fixed simulation counts
+ * per candidate play, and the mean score with its 95% confidence interval is reported for each point.  Time budget
+ * points show where a speedup buys points on this machine; fixed simulation points are independent of machine speed,
+ * so they compare search quality across hardware.
+ *
+ * Time budget games are played one at a time so that players do not compete for cores.  Fixed simulation games do not
+ * depend on timing and are played in parallel, with a generous time budget.
+ */
+public class BudgetCurveBenchmark {
+
+	private static final double Z_95 = 1.96; // normal quantile of a two-sided 95% confidence interval
+	private static final long FIXED_GAME_MILLIS = 3600000L; // time budget of fixed simulation games
+
+	/**
+	 * Get a factory for a player by name.
+	 * @param name RandomMCPlayer or JIsraelsonPlayer
+	 * @param depthLimit simulation depth limit, or a negative value for the player's default
+	 * @param autoDepth whether to choose the depth limit of each move from the player's depth calibration file
+	 * @param fixedSimulations simulations per candidate play, or 0 to simulate for the time given
+	 * @return player factory
+	 */
+	static Supplier<PokerSquaresPlayer> getFactory(final String name, final int depthLimit, final boolean autoDepth,
+			final int fixedSimulations) {
+		return new Supplier<PokerSquaresPlayer>() {
+			@Override
+			public PokerSquaresPlayer get() {
+				if (name.equals("RandomMCPlayer")) {
+					RandomMCPlayer player = depthLimit < 0 ? new RandomMCPlayer() : new RandomMCPlayer(depthLimit);
+					player.setAutoDepth(autoDepth);
+					player.setFixedSimulations(fixedSimulations);
+					return player;
+				}
+				if (name.equals("JIsraelsonPlayer")) {
+					JIsraelsonPlayer player = depthLimit < 0 ? new JIsraelsonPlayer() : new JIsraelsonPlayer(depthLimit);
+					player.setAutoDepth(autoDepth);
+					player.setFixedSimulations(fixedSimulations);
+					return player;
+				}
+				throw new IllegalArgumentException("Unknown player: " + name);
+			}
+		};
+	}
+
+	/**
+	 * Play one game with each seed from 0 to numGames - 1, one at a time, with the given game time budget.
+	 * @param factory player factory
+	 * @param system point system
+	 * @param numGames number of games
+	 * @param gameMillis game time budget in milliseconds
+	 * @return summary of the game scores
+	 */
+	static ScoreSummary playBudget(Supplier<PokerSquaresPlayer> factory, PokerSquaresPointSystem system, int numGames,
+			long gameMillis) {
+		ScoreSummary summary = new ScoreSummary();
+		PokerSquares game = new PokerSquares(factory.get(), system);
+		game.setVerbose(false);
+		game.setGameMillis(gameMillis);
+		for (int seed = 0; seed < numGames; seed++)
+			summary.add(game.play(seed));
+		return summary;
+	}
+
+	/**
+	 * Play one game with each seed from 0 to numGames - 1 in parallel, each with a fresh player.  If a game fails, the
+	 * other games are cancelled and the failure is thrown, so no point is reported from an incomplete sample.
+	 * @param factory player factory
+	 * @param system point system
+	 * @param numGames number of games
+	 * @param pool thread pool
+	 * @return summary of the game scores
+	 * @throws IllegalStateException if a game fails or the benchmark is interrupted
+	 */
+	static ScoreSummary playFixed(final Supplier<PokerSquaresPlayer> factory, final PokerSquaresPointSystem system,
+			int numGames, ExecutorService pool) {
+		ArrayList<Future<Integer>> games = new ArrayList<Future<Integer>>();
+		for (int seed = 0; seed < numGames; seed++) {
+			final long SEED = seed;
+			games.add(pool.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					PokerSquares game = new PokerSquares(factory.get(), system);
+					game.setVerbose(false);
+					game.setGameMillis(FIXED_GAME_MILLIS);
+					return game.play(SEED);
+				}
+			}));
+		}
+		ScoreSummary summary = new ScoreSummary();
+		try {
+			for (Future<Integer> game : games)
+				summary.add(game.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Fixed simulation games interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Fixed simulation game failed", e.getCause());
+		} finally {
+			for (Future<Integer> game : games) // cancel the games not yet finished after a failure
+				game.cancel(true);
+		}
+		return summary;
+	}
+
+	/**
+	 * Print a row of results.
+	 * @param player player name
+	 * @param mode Millis or Sims
+	 * @param value game milliseconds or simulations per candidate play
+	 * @param summary summary of the game scores
+	 */
+	static void printRow(String player, String mode, long value, ScoreSummary summary) {
+		double halfWidth = Z_95 * summary.getStandardError();
+		System.out.printf("%-18s %-6s %9d %6d %8.2f %8.2f %8.2f%n", player, mode, value, summary.getCount(),
+				summary.getMean(), summary.getMean() - halfWidth, summary.getMean() + halfWidth);
+	}
+
+	/**
+	 * Run the benchmark.
+	 * @param args optional number of games per point (default 20), comma-separated game budgets in seconds (default
+	 * 1,2,5,10,30,60), comma-separated fixed simulation counts per candidate play (default 10,30,100,300,1000),
+	 * comma-separated player names (default RandomMCPlayer,JIsraelsonPlayer) and depth limit (default: each player's
+	 * own), where "auto" chooses the depth limit of each move from the player's depth calibration file and falls back
+	 * to the player's own depth limit without one.  An empty list (e.g. "") skips that series.
+	 */
+	public static void main(String[] args) {
+		int numGames = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		String budgets = args.length > 1 ? args[1] : "1,2,5,10,30,60";
+		String counts = args.length > 2 ? args[2] : "10,30,100,300,1000";
+		String players = args.length > 3 ? args[3] : "RandomMCPlayer,JIsraelsonPlayer";
+		boolean autoDepth = args.length > 4 && args[4].equals("auto");
+		int depthLimit = args.length > 4 && !autoDepth ? Integer.parseInt(args[4]) : -1;
+		PokerSquaresPointSystem system = PokerSquaresPointSystem.getBritishPointSystem();
+		ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+		System.out.printf("%-18s %-6s %9s %6s %8s %8s %8s%n", "Player", "Mode", "Value", "Games", "Mean", "CI95Low",
+				"CI95High");
+		try {
+			for (String player : players.split(",")) {
+				// warm up the player class on a time-limited instance, since warm-up games with fixed simulations do
+				// not respect the warm-up time
+				PokerSquaresPlayer warmed = getFactory(player, depthLimit, autoDepth, 0).get();
+				warmed.setPointSystem(system, PokerSquares.POINT_SYSTEM_MILLIS);
+				PokerSquares.warmUp(warmed);
+				for (String budget : budgets.split(","))
+					if (!budget.isEmpty()) {
+						long gameMillis = Math.round(Double.parseDouble(budget) * 1000);
+						printRow(player, "Millis", gameMillis,
+								playBudget(getFactory(player, depthLimit, autoDepth, 0), system, numGames, gameMillis));
+					}
+				for (String count : counts.split(","))
+					if (!count.isEmpty()) {
+						int simulations = Integer.parseInt(count);
+						printRow(player, "Sims", simulations,
+								playFixed(getFactory(player, depthLimit, autoDepth, simulations), system, numGames, pool));
+					}
+			}
+		} finally {
+			pool.shutdownNow(); // also after a failure, so that the pool's threads do not keep the JVM alive
+		}
+	}
+}
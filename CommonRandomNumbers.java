@@ -0,0 +1,181 @@
+import java.util.Random;
+
+/**
+ * CommonRandomNumbers - a per-turn pool of sampled future card sequences shared by all candidate plays of a Monte
+ * Carlo player, with paired-difference statistics over the candidates' scores.
+ *
+ * Each sample is a sequence of distinct undealt cards and a seed for the placement choices of the rollout policy.
+ * Every candidate play is scored on every sample, so differences between candidates are not swamped by the variance
+ * of the deal.  The search can stop as soon as the best candidate beats every other candidate by a given number of
+ * standard errors of their paired differences.
+ */
+public class CommonRandomNumbers {
+
+	private static final int MIN_SAMPLES = 32; // samples before a decision may be declared
+	private static final int CHECK_INTERVAL = 16; // samples between decision checks
+	private final int maxSamples; // pool capacity
+	private Card[][] sequences; // sampled card sequences
+	private long[] seeds; // sampled placement seeds
+	private double[][] scores; // scores indexed by candidate, then sample
+	private double[] totals; // score totals indexed by candidate
+	private Card[] undealt = new Card[Card.NUM_CARDS]; // scratch copy of undealt cards
+	private int numUndealt; // number of undealt cards
+	private int numCandidates; // number of candidates this turn
+	private int numSamples; // number of samples drawn this turn
+
+	/**
+	 * Create a pool holding up to the given number of samples per turn.
+	 * @param maxSamples pool capacity
+	 */
+	public CommonRandomNumbers(int maxSamples) {
+		this.maxSamples = maxSamples;
+		sequences = new Card[maxSamples][PokerSquares.SIZE * PokerSquares.SIZE];
+		seeds = new long[maxSamples];
+		scores = new double[PokerSquares.SIZE * PokerSquares.SIZE][maxSamples];
+		totals = new double[PokerSquares.SIZE * PokerSquares.SIZE];
+	}
+
+	/**
+	 * Start a new turn.
+	 * @param numCandidates number of candidate plays
+	 * @param deck array whose elements from index start onward are the undealt cards
+	 * @param start index of the first undealt card
+	 */
+	public void reset(int numCandidates, Card[] deck, int start) {
+		this.numCandidates = numCandidates;
+		numSamples = 0;
+		numUndealt = deck.length - start;
+		System.arraycopy(deck, start, undealt, 0, numUndealt);
+		for (int i = 0; i < numCandidates; i++)
+			totals[i] = 0;
+	}
+
+	/**
+	 * Draw a new sample of the given length.
+	 * @param length number of cards in the sequence
+	 * @param random pseudorandom number generator
+	 * @return index of the new sample, or -1 if the pool is full
+	 */
+	public int addSample(int length, Random random) {
+		if (numSamples == maxSamples)
+			return -1;
+		DealService.sample(undealt, numUndealt, sequences[numSamples], length, random);
+		seeds[numSamples] = random.nextLong();
+		return numSamples++;
+	}
+
+	/**
+	 * Get the card sequence of a sample.
+	 * @param sample sample index
+	 * @return card sequence
+	 */
+	public Card[] getSequence(int sample) {
+		return sequences[sample];
+	}
+
+	/**
+	 * Get the placement seed of a sample.
+	 * @param sample sample index
+	 * @return seed for the rollout policy's pseudorandom number generator
+	 */
+	public long getSeed(int sample) {
+		return seeds[sample];
+	}
+
+	/**
+	 * Record the score of a candidate on a sample.
+	 * @param candidate candidate index
+	 * @param sample sample index
+	 * @param score simulated score
+	 */
+	public void setScore(int candidate, int sample, double score) {
+		scores[candidate][sample] = score;
+		totals[candidate] += score;
+	}
+
+	/**
+	 * Get the number of samples drawn this turn.
+	 * @return number of samples
+	 */
+	public int getNumSamples() {
+		return numSamples;
+	}
+
+	/**
+	 * Get the mean score of a candidate.
+	 * @param candidate candidate index
+	 * @return mean score over all samples
+	 */
+	public double getMean(int candidate) {
+		return totals[candidate] / numSamples;
+	}
+
+	/**
+	 * Get the candidate with the highest mean score, breaking ties in favor of the lowest index.  Used for the
+	 * decision check, where any of the tied candidates will do.
+	 * @return index of the best candidate
+	 */
+	public int getBestCandidate() {
+		int best = 0;
+		for (int i = 1; i < numCandidates; i++)
+			if (totals[i] > totals[best])
+				best = i;
+		return best;
+	}
+
+	/**
+	 * Get a candidate with the highest mean score, breaking ties uniformly at random (as the independent simulations
+	 * of UniformSimulationAllocator do), so that truly equivalent candidates are not chosen by their order.
+	 * @param random pseudorandom number generator, drawn from only if there is a tie
+	 * @return index of the chosen best candidate
+	 */
+	public int getBestCandidate(Random random) {
+		int best = 0;
+		int numTied = 1; // number of candidates tied with best so far
+		for (int i = 1; i < numCandidates; i++)
+			if (totals[i] > totals[best]) {
+				best = i;
+				numTied = 1;
+			}
+			else if (totals[i] == totals[best] && random.nextInt(++numTied) == 0) // keep each tied one with equal probability
+				best = i;
+		return best;
+	}
+
+	/**
+	 * Get the mean and standard error of the paired score differences of two candidates.
+	 * @param a first candidate index
+	 * @param b second candidate index
+	 * @return array of the mean of (a - b) and its standard error
+	 */
+	public double[] getPairedDifference(int a, int b) {
+		double mean = (totals[a] - totals[b]) / numSamples;
+		double squares = 0;
+		for (int s = 0; s < numSamples; s++) {
+			double diff = scores[a][s] - scores[b][s] - mean;
+			squares += diff * diff;
+		}
+		double stdErr = numSamples > 1 ? Math.sqrt(squares / (numSamples - 1) / numSamples) : Double.POSITIVE_INFINITY;
+		return new double[] {mean, stdErr};
+	}
+
+	/**
+	 * Return whether the best candidate is separated from every other candidate by more than z standard errors of
+	 * their paired differences.  Candidates that scored identically on every sample are treated as separated.  This is
+	 * only checked periodically once a minimum number of samples has been drawn.
+	 * @param z number of standard errors
+	 * @return whether the decision is clear
+	 */
+	public boolean isDecided(double z) {
+		if (numSamples < MIN_SAMPLES || numSamples % CHECK_INTERVAL != 0)
+			return false;
+		int best = getBestCandidate();
+		for (int i = 0; i < numCandidates; i++)
+			if (i != best) {
+				double[] difference = getPairedDifference(best, i);
+				if (difference[1] > 0 && difference[0] <= z * difference[1])
+					return false;
+			}
+		return true;
+	}
+}
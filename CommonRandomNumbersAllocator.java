@@ -0,0 +1,43 @@
+/**
+ * CommonRandomNumbersAllocator - evaluates every candidate play on the same sampled card sequences and placement
+ * seeds (common random numbers, see CommonRandomNumbers) until the move's time is used or the best candidate is
+ * clearly separated from all others, and chooses the candidate with the highest mean score, breaking ties randomly.
+ * With a fixed number of simulations, that many samples are drawn with no early stop.
+ */
+public class CommonRandomNumbersAllocator implements SimulationAllocator {
+
+	private static final double CRN_Z = 3.0; // standard errors separating a clear decision
+	private static final int MAX_SAMPLES = 4096; // shared samples per move
+	private final CommonRandomNumbers commonSamples = new CommonRandomNumbers(MAX_SAMPLES); // shared samples
+
+	/* (non-Javadoc)
+	 * @see SimulationAllocator#choosePlay(MonteCarloSearch, Card, long)
+	 */
+	@Override
+	public int choosePlay(MonteCarloSearch search, Card card, long moveMillis) {
+		long endTime = System.currentTimeMillis() + moveMillis;
+		int numCandidates = search.getNumCandidates();
+		int[] candidates = search.getCandidates();
+		int fixedSimulations = search.getFixedSimulations();
+		int numPlays = search.getNumPlays();
+		// real depth after the play under evaluation
+		int depth = Math.min(search.getMoveDepth(), PokerSquares.SIZE * PokerSquares.SIZE - numPlays - 1);
+		commonSamples.reset(numCandidates, search.getDeck(), numPlays + 1);
+		do {
+			if (search.isPastDeadline()) // fall back on the best play over the samples so far
+				break;
+			int sample = commonSamples.addSample(depth, search.getRandom());
+			if (sample < 0) // pool is full
+				break;
+			for (int i = 0; i < numCandidates; i++) {
+				int play = candidates[i];
+				search.makePlay(card, play / PokerSquares.SIZE, play % PokerSquares.SIZE);
+				commonSamples.setScore(i, sample, search.simulate(commonSamples.getSequence(sample), depth,
+						commonSamples.getSeed(sample)));
+				search.undoPlay();
+			}
+		} while (fixedSimulations > 0 ? commonSamples.getNumSamples() < fixedSimulations
+				: System.currentTimeMillis() < endTime && !commonSamples.isDecided(CRN_Z));
+		return candidates[commonSamples.getBestCandidate(search.getRandom())];
+	}
+}
@@ -0,0 +1,41 @@
+/**
+ * CommonRandomNumbersBenchmark - compares the RandomMCPlayer with independent simulations against the same player
+ * with common random numbers at the full game budget and at a quarter of it, on the same seeded British deals.
+ * Reports the mean game score, its standard error and the mean number of simulations per game.
+ */
+public class CommonRandomNumbersBenchmark {
+
+	/**
+	 * Run the comparison.
+	 * @param args optional number of games (default 10), game budget in milliseconds (default 4000) and depth limit
+	 * (default 2)
+	 */
+	public static void main(String[] args) {
+		int numGames = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		long gameMillis = args.length > 1 ? Long.parseLong(args[1]) : 4000L;
+		int depthLimit = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+		PokerSquaresPointSystem system = PokerSquaresPointSystem.getBritishPointSystem();
+
+		String[] labels = {"Independent", "Common", "Common/4"};
+		boolean[] common = {false, true, true};
+		long[] millis = {gameMillis, gameMillis, gameMillis / 4};
+		String[] results = new String[labels.length];
+		for (int i = 0; i < labels.length; i++) {
+			RandomMCPlayer player = new RandomMCPlayer(depthLimit);
+			player.setCommonRandomNumbers(common[i]);
+			PokerSquares game = new PokerSquares(player, system);
+			game.setGameMillis(millis[i]);
+			PokerSquares.warmUp(player); // otherwise warmed by playSequence
+			long startSimulations = player.getSimulations(); // excludes warm-up simulations
+			int[] scores = game.playSequence(numGames, 0L, false);
+			ScoreSummary summary = new ScoreSummary();
+			for (int score : scores)
+				summary.add(score);
+			results[i] = String.format("%-12s %8d %8.2f %8.2f %12d", labels[i], millis[i], summary.getMean(),
+					summary.getStandardError(), (player.getSimulations() - startSimulations) / numGames);
+		}
+		System.out.printf("%-12s %8s %8s %8s %12s\n", "Mode", "Millis", "Mean", "StdErr", "Sims/Game");
+		for (String result : results)
+			System.out.println(result);
+	}
+}
@@ -0,0 +1,61 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * CsvGameResultSink - writes game results as buffered CSV lines with the columns
+ * seed, player, system, score, time_used_ms, cpu_ms, gc_ms and move_ms, where time_used_ms is wall-clock time, cpu_ms
+ * is the CPU time of the player's calling thread, gc_ms is the garbage collection pause time overlapping the moves,
+ * and move_ms holds the wall-clock milliseconds of each move separated by semicolons.  The player name is always
+ * quoted, with its quotes doubled, so that names containing commas or quotes keep the row's columns intact.
+ */
+public class CsvGameResultSink implements GameResultSink {
+
+	private final PrintWriter out; // buffered output
+
+	/**
+	 * Create a CSV sink writing to the given file, replacing its contents.
+	 * @param path path of the CSV file
+	 * @throws IOException if the file cannot be opened
+	 */
+	public CsvGameResultSink(String path) throws IOException {
+		out = new PrintWriter(new BufferedWriter(new FileWriter(path), 1 << 16));
+		out.println("seed,player,system,score,time_used_ms,cpu_ms,gc_ms,move_ms");
+	}
+
+	/* (non-Javadoc)
+	 * @see GameResultSink#record(GameResult)
+	 */
+	@Override
+	public synchronized void record(GameResult result) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(result.seed).append(',').append(quote(result.player)).append(',').append(result.system).append(',')
+				.append(result.score).append(',').append(String.format("%.3f", result.getTimeUsedNanos() / 1e6))
+				.append(',').append(String.format("%.3f", result.getCpuNanos() / 1e6)).append(',')
+				.append(String.format("%.3f", result.getGcNanos() / 1e6)).append(',');
+		for (int i = 0; i < result.moveNanos.length; i++) {
+			if (i > 0)
+				sb.append(';');
+			sb.append(String.format("%.3f", result.moveNanos[i] / 1e6));
+		}
+		out.println(sb);
+	}
+
+	/**
+	 * Quote a CSV field, doubling its quotes.
+	 * @param field field value
+	 * @return quoted field
+	 */
+	private static String quote(String field) {
+		return '"' + field.replace("\"", "\"\"") + '"';
+	}
+
+	/* (non-Javadoc)
+	 * @see GameResultSink#close()
+	 */
+	@Override
+	public synchronized void close() {
+		out.close();
+	}
+}
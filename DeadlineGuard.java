@@ -0,0 +1,138 @@
+/**
+ * DeadlineGuard - a player-side hard deadline for each move, so that a Monte Carlo player stops searching and returns
+ * its best play so far (its fallback) well before the game clock runs out.
+ *
+ * A search is normally limited by its own soft per-move budget, but a long GC pause, a descheduled thread or a slow
+ * final batch of simulations can carry a move past it.  The hard deadline of a move is the game time remaining less a
+ * reserve: MIN_MOVE_NANOS for this and every later move, plus a tail margin for one more latency outlier.  The tail
+ * margin adapts to the observed tail latency: it is twice the largest recent overshoot of a move past its soft budget,
+ * decaying by TAIL_DECAY per move.  Each move on which the hard deadline fires is counted as a fallback.
+ */
+public class DeadlineGuard {
+
+	private static final long MIN_MOVE_NANOS = 2000000L; // time reserved for each remaining move
+	private static final double TAIL_DECAY = 0.95; // per-move decay of the observed tail overshoot
+	private double tailOvershootNanos = 0; // decaying maximum overshoot of a move past its soft budget
+	private long startNanos; // start of the current move
+	private long deadlineNanos; // hard deadline of the current move
+	private boolean fired; // whether the hard deadline fired during the current move
+	private long fallbacks = 0; // number of moves on which the hard deadline fired
+
+	/**
+	 * Start the guard for a move.
+	 * @param millisRemaining game time remaining given to getPlay
+	 * @param remainingPlays number of moves left in the game, including this one
+	 */
+	public void startMove(long millisRemaining, int remainingPlays) {
+		startNanos = System.nanoTime();
+		deadlineNanos = startNanos + millisRemaining * 1000000L - remainingPlays * MIN_MOVE_NANOS - getTailMarginNanos();
+		fired = false;
+	}
+
+	/**
+	 * Return whether the hard deadline of the current move has passed, counting a fallback the first time it has.
+	 * @return whether the search must stop
+	 */
+	public boolean isExpired() {
+		if (fired)
+			return true;
+		if (System.nanoTime() - deadlineNanos < 0)
+			return false;
+		fired = true;
+		fallbacks++;
+		return true;
+	}
+
+	/**
+	 * End the guard for a move, updating the observed tail overshoot.
+	 * @param softBudgetMillis the move's own soft time budget
+	 */
+	public void endMove(long softBudgetMillis) {
+		long overshoot = System.nanoTime() - startNanos - softBudgetMillis * 1000000L;
+		tailOvershootNanos = Math.max(tailOvershootNanos * TAIL_DECAY, overshoot);
+	}
+
+	/**
+	 * Get the current margin reserved for a latency outlier.
+	 * @return tail margin in nanoseconds
+	 */
+	public long getTailMarginNanos() {
+		return (long) (2 * tailOvershootNanos);
+	}
+
+	/**
+	 * Return whether the hard deadline fired during the most recent move.
+	 * @return whether the most recent move fell back
+	 */
+	public boolean hasFired() {
+		return fired;
+	}
+
+	/**
+	 * Get the number of moves on which the hard deadline fired.
+	 * @return number of fallbacks
+	 */
+	public long getFallbacks() {
+		return fallbacks;
+	}
+
+	/**
+	 * Stress the guard under GC pressure: a background thread churns a retained set of garbage while each Monte Carlo
+	 * player plays short games with the guard on and off.  Run with a small heap (e.g. -Xmx64m) so that collections are
+	 * frequent and long.
+	 * @param args optional game milliseconds (default 1000), games per configuration (default 20) and megabytes of
+	 * garbage retained (default 16)
+	 */
+	public static void main(String[] args) {
+		long gameMillis = args.length > 0 ? Long.parseLong(args[0]) : 1000L;
+		int numGames = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		final int retainedChunks = args.length > 2 ? Integer.parseInt(args[2]) * 16 : 256; // 64 KB chunks
+		Thread churn = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				byte[][] retained = new byte[retainedChunks][];
+				for (int i = 0; ; i++)
+					retained[i % retainedChunks] = new byte[65536];
+			}
+		}, "DeadlineGuard-churn");
+		churn.setDaemon(true);
+		churn.start();
+
+		PokerSquaresPointSystem system = PokerSquaresPointSystem.getBritishPointSystem();
+		System.out.printf("%-20s %-5s %6s %8s %8s %9s %8s %12s%n", "Player", "Guard", "Games", "Mean", "Forfeits",
+				"Fallbacks", "Overruns", "MinSlack(ms)");
+		for (int p = 0; p < 2; p++)
+			for (boolean guard : new boolean[] {true, false}) {
+				PokerSquaresPlayer player;
+				if (p == 0) {
+					RandomMCPlayer randomMC = new RandomMCPlayer();
+					randomMC.setDeadlineGuard(guard);
+					player = randomMC;
+				} else {
+					JIsraelsonPlayer israelson = new JIsraelsonPlayer();
+					israelson.setDeadlineGuard(guard);
+					player = israelson;
+				}
+				PokerSquares game = new PokerSquares(player, system);
+				game.setVerbose(false);
+				game.setGameMillis(gameMillis);
+				PokerSquares.warmUp(player);
+				MoveMetrics metrics = new MoveMetrics();
+				game.setMoveMetrics(metrics);
+				int minPoints = Integer.MAX_VALUE; // score of a forfeited game
+				for (int points : system.getScoreTable())
+					minPoints = Math.min(minPoints, 10 * points);
+				ScoreSummary scores = new ScoreSummary();
+				int forfeits = 0;
+				for (int seed = 0; seed < numGames; seed++) {
+					int score = game.play(seed);
+					scores.add(score);
+					if (score == minPoints)
+						forfeits++;
+				}
+				System.out.printf("%-20s %-5s %6d %8.2f %8d %9d %8d %12.1f%n", player.getName(), guard ? "on" : "off",
+						numGames, scores.getMean(), forfeits, metrics.getFallbacks(), metrics.getOverruns(),
+						metrics.getMinSlackMillis());
+			}
+	}
+}
@@ -0,0 +1,269 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.Random;
+import java.util.Stack;
+
+/**
+ * DealService - a source of 25-card deals encoded as card identification numbers (see Card.getCardId), generated in
+ * bulk into reusable buffers without allocation.
+ *
+ * A generating service deals with a partial Fisher-Yates shuffle of 25 steps from its pseudorandom number generator.
+ * These are the same swaps that Collections.shuffle makes first, so a deal is identical to the first 25 cards popped
+ * from a Stack of Card.getAllCards() shuffled with the same generator state, the way PokerSquares dealt before.  Seeded
+ * games therefore keep their deals.
+ *
+ * A file-backed service serves deals from a memory-mapped deal file written by write, for reproducible benchmarking
+ * without generation cost.  The file begins with a magic number and format version, the seed of its first deal (long)
+ * and the number of deals (int), followed by 25 card identification numbers (byte each) per deal.  Deal i of the file
+ * is the generated deal for seed firstSeed + i.
+ *
+ * The static sample method is the same partial shuffle over any pool of undealt cards, for drawing rollout sequences.
+ */
+public class DealService {
+
+	public static final int DEAL_SIZE = PokerSquares.SIZE * PokerSquares.SIZE; // cards per deal
+	public static final int MAGIC = 0x5053444c; // "PSDL"
+	public static final int VERSION = 1; // deal file format version
+	private static final int HEADER_BYTES = 4 + 1 + 8 + 4; // magic, version, first seed and number of deals
+	private final Random random; // pseudorandom number generator of a generating service, or null
+	private final int[] deck = new int[Card.NUM_CARDS]; // scratch deck of card identification numbers
+	private final MappedByteBuffer deals; // deals of a file-backed service, or null
+	private final long firstSeed; // seed of the first deal of a file-backed service
+	private final int numDeals; // number of deals of a file-backed service
+	private int nextIndex = 0; // index of the next deal served sequentially by a file-backed service
+
+	/**
+	 * Create a service generating deals from the given pseudorandom number generator.
+	 * @param random pseudorandom number generator
+	 */
+	public DealService(Random random) {
+		this.random = random;
+		deals = null;
+		firstSeed = 0;
+		numDeals = 0;
+	}
+
+	/**
+	 * Create a service serving deals from a memory-mapped deal file.
+	 * @param path path of a file written by write
+	 * @throws IOException if the file cannot be mapped or is not a deal file of a supported version
+	 */
+	public DealService(String path) throws IOException {
+		random = null;
+		try (RandomAccessFile file = new RandomAccessFile(path, "r")) {
+			deals = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+		}
+		if (deals.limit() < HEADER_BYTES || deals.getInt(0) != MAGIC)
+			throw new IOException(path + " is not a deal file.");
+		if (deals.get(4) != VERSION)
+			throw new IOException("Unsupported deal file version " + deals.get(4) + ".");
+		firstSeed = deals.getLong(5);
+		numDeals = deals.getInt(13);
+		if (numDeals <= 0 || deals.limit() < HEADER_BYTES + (long) numDeals * DEAL_SIZE)
+			throw new IOException(path + " is truncated.");
+	}
+
+	/**
+	 * Return whether this service serves deals from a file.
+	 * @return whether this service is file-backed
+	 */
+	public boolean isFileBacked() {
+		return deals != null;
+	}
+
+	/**
+	 * Get the number of deals of a file-backed service.
+	 * @return number of deals in the file, or 0 for a generating service
+	 */
+	public int getNumDeals() {
+		return numDeals;
+	}
+
+	/**
+	 * Write the deal for a seed into a buffer.  A generating service reseeds its generator with the seed; a file-backed
+	 * service serves the file's deal for the seed.
+	 * @param seed seed of the deal
+	 * @param buffer destination buffer
+	 * @param offset index in the buffer of the first card
+	 * @throws IllegalArgumentException if a file-backed service has no deal for the seed
+	 */
+	public void getDeal(long seed, int[] buffer, int offset) {
+		if (deals != null) {
+			if (seed < firstSeed || seed - firstSeed >= numDeals)
+				throw new IllegalArgumentException("No deal for seed " + seed + " in the deal file.");
+			readDeal((int) (seed - firstSeed), buffer, offset);
+		}
+		else {
+			random.setSeed(seed);
+			nextDeal(buffer, offset);
+		}
+	}
+
+	/**
+	 * Write the next deal into a buffer.  A generating service continues from the current state of its generator; a
+	 * file-backed service serves the file's deals in order, and never repeats them.
+	 * @param buffer destination buffer
+	 * @param offset index in the buffer of the first card
+	 * @throws IllegalStateException if a file-backed service has served all its deals
+	 */
+	public void nextDeal(int[] buffer, int offset) {
+		if (deals != null) {
+			if (nextIndex == numDeals)
+				throw new IllegalStateException("All " + numDeals + " deals of the deal file have been served.");
+			readDeal(nextIndex++, buffer, offset);
+			return;
+		}
+		for (int i = 0; i < Card.NUM_CARDS; i++)
+			deck[i] = i;
+		// the first DEAL_SIZE swaps of Collections.shuffle, which deals from the end of the deck
+		for (int i = 0; i < DEAL_SIZE; i++) {
+			int last = Card.NUM_CARDS - 1 - i;
+			int j = random.nextInt(last + 1);
+			int cardId = deck[j];
+			deck[j] = deck[last];
+			deck[last] = cardId;
+			buffer[offset + i] = cardId;
+		}
+	}
+
+	/**
+	 * Write the next deals into a buffer, DEAL_SIZE cards each.
+	 * @param buffer destination buffer of at least numDeals * DEAL_SIZE cards
+	 * @param numDeals number of deals
+	 * @throws IllegalStateException if a file-backed service runs out of deals
+	 */
+	public void nextDeals(int[] buffer, int numDeals) {
+		for (int i = 0; i < numDeals; i++)
+			nextDeal(buffer, i * DEAL_SIZE);
+	}
+
+	/**
+	 * Copy a deal of a file-backed service into a buffer.
+	 * @param index index of the deal in the file
+	 * @param buffer destination buffer
+	 * @param offset index in the buffer of the first card
+	 */
+	private void readDeal(int index, int[] buffer, int offset) {
+		int position = HEADER_BYTES + index * DEAL_SIZE;
+		for (int i = 0; i < DEAL_SIZE; i++)
+			buffer[offset + i] = deals.get(position + i);
+	}
+
+	/**
+	 * Draw a uniformly random sequence of distinct elements from a pool by a partial Fisher-Yates shuffle, which
+	 * permutes the front of the pool in place.
+	 * @param pool pool of elements, e.g. undealt cards
+	 * @param poolSize number of elements of the pool in use
+	 * @param sample destination of the sequence
+	 * @param length length of the sequence (at most poolSize)
+	 * @param random pseudorandom number generator
+	 */
+	public static <T> void sample(T[] pool, int poolSize, T[] sample, int length, Random random) {
+		for (int i = 0; i < length; i++) {
+			int j = i + random.nextInt(poolSize - i);
+			T element = pool[j];
+			pool[j] = pool[i];
+			pool[i] = element;
+			sample[i] = element;
+		}
+	}
+
+	/**
+	 * Write a deal file holding the generated deals for seeds firstSeed, firstSeed + 1, ...
+	 * @param path path of the deal file
+	 * @param firstSeed seed of the first deal
+	 * @param numDeals number of deals
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(String path, long firstSeed, int numDeals) throws IOException {
+		DealService generator = new DealService(new Random());
+		int[] deal = new int[DEAL_SIZE];
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.writeLong(firstSeed);
+			out.writeInt(numDeals);
+			for (int i = 0; i < numDeals; i++) {
+				generator.getDeal(firstSeed + i, deal, 0);
+				for (int cardId : deal)
+					out.writeByte(cardId);
+			}
+		}
+	}
+
+	/**
+	 * Check generated deals against the Collections.shuffle deals PokerSquares used, and compare dealing throughput.
+	 * @param numDeals number of deals
+	 * @return whether every generated deal matched
+	 */
+	static boolean checkAndBenchmark(int numDeals) {
+		Random random = new Random();
+		DealService service = new DealService(random);
+		int[] deal = new int[DEAL_SIZE];
+		for (long seed = 0; seed < numDeals; seed++) {
+			service.getDeal(seed, deal, 0);
+			random.setSeed(seed);
+			Stack<Card> deck = new Stack<Card>();
+			for (Card card : Card.getAllCards())
+				deck.push(card);
+			Collections.shuffle(deck, random);
+			for (int i = 0; i < DEAL_SIZE; i++)
+				if (deck.pop().getCardId() != deal[i]) {
+					System.out.println("Deal mismatch for seed " + seed);
+					return false;
+				}
+		}
+		System.out.printf("%d seeded deals match Collections.shuffle%n", numDeals);
+
+		long sink = 0;
+		for (int round = 0; round < 3; round++) { // the last round is reported, after JIT compilation
+			long start = System.nanoTime();
+			for (int i = 0; i < numDeals; i++) {
+				Stack<Card> deck = new Stack<Card>();
+				for (Card card : Card.getAllCards())
+					deck.push(card);
+				Collections.shuffle(deck, random);
+				for (int j = 0; j < DEAL_SIZE; j++)
+					sink += deck.pop().getCardId();
+			}
+			long shuffleNanos = System.nanoTime() - start;
+			int[] buffer = new int[1024 * DEAL_SIZE];
+			start = System.nanoTime();
+			for (int i = 0; i < numDeals; i += 1024) {
+				service.nextDeals(buffer, 1024);
+				sink += buffer[i % buffer.length];
+			}
+			long bulkNanos = System.nanoTime() - start;
+			if (round == 2)
+				System.out.printf("Collections.shuffle: %.1f ns/deal, DealService: %.1f ns/deal%n",
+						(double) shuffleNanos / numDeals, (double) bulkNanos / numDeals);
+		}
+		return sink != Long.MIN_VALUE;
+	}
+
+	/**
+	 * Write a deal file, or check and benchmark deal generation.
+	 * @param args "write" with a path, first seed and number of deals; or "check" with an optional number of deals
+	 * (default 1000000)
+	 * @throws IOException if the deal file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length >= 4 && args[0].equals("write")) {
+			write(args[1], Long.parseLong(args[2]), Integer.parseInt(args[3]));
+			DealService file = new DealService(args[1]);
+			System.out.printf("Wrote %d deals from seed %s to %s%n", file.getNumDeals(), args[2], args[1]);
+		}
+		else if (args.length >= 1 && args[0].equals("check")) {
+			if (!checkAndBenchmark(args.length > 1 ? Integer.parseInt(args[1]) : 1000000))
+				System.exit(1);
+		}
+		else
+			System.err.println("Usage: java DealService write <path> <first seed> <deals> | check [deals]");
+	}
+}
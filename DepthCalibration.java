@@ -0,0 +1,226 @@
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * DepthCalibration - a table of the decision quality of a Monte Carlo player by rollout depth limit and number of
+ * simulations per candidate play, with the time a simulation takes at each depth limit.  The table is gathered offline
+ * by playing games with fixed simulations (see main): quality is the mean game score, made non-decreasing in the
+ * number of simulations to smooth out noise.
+ *
+ * For a move, selectDepth estimates how many simulations per candidate each depth limit affords in the move's time,
+ * given the measured simulation time relative to the calibration's, and chooses the depth limit with the best expected
+ * quality for its simulations (interpolated on a log scale).  So shallow depth limits are chosen when time is tight and
+ * deeper ones when it is plentiful.
+ * A player uses its saved calibration with MonteCarloPlayer.setAutoDepth.  The calibration is gathered under the
+ * British point system, so under other systems it only ranks the depth limits by their British quality.
+ */
+public class DepthCalibration implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	private final int[] depths; // calibrated depth limits
+	private final int[] budgets; // calibrated simulations per candidate play, increasing
+	private final double[][] quality; // mean game score by depth index and budget index
+	private final double[] nanosPerSimulation; // time per simulation by depth index
+
+	/**
+	 * Create a depth calibration.
+	 * @param depths calibrated depth limits
+	 * @param budgets calibrated simulations per candidate play, increasing
+	 * @param quality mean game score by depth index and budget index
+	 * @param nanosPerSimulation time per simulation by depth index in nanoseconds
+	 */
+	public DepthCalibration(int[] depths, int[] budgets, double[][] quality, double[] nanosPerSimulation) {
+		this.depths = depths.clone();
+		this.budgets = budgets.clone();
+		this.quality = new double[depths.length][];
+		for (int d = 0; d < depths.length; d++) {
+			this.quality[d] = quality[d].clone();
+			for (int b = 1; b < budgets.length; b++) // more simulations are assumed never to hurt
+				this.quality[d][b] = Math.max(this.quality[d][b], this.quality[d][b - 1]);
+		}
+		this.nanosPerSimulation = nanosPerSimulation.clone();
+	}
+
+	/**
+	 * Choose the depth limit of a move: the depth limit whose affordable simulations per candidate play have the best
+	 * expected quality.  If no depth limit affords a simulation per candidate, the fastest one is chosen.
+	 * @param moveMillis time budget of the move
+	 * @param numCandidates number of candidate plays
+	 * @param fixedSimulations fixed simulations per candidate play, or 0 to simulate for the time given
+	 * @param relativeSimulationNanos measured simulation time relative to the calibration's
+	 * @return chosen depth limit
+	 */
+	public int selectDepth(long moveMillis, int numCandidates, int fixedSimulations, double relativeSimulationNanos) {
+		int best = 0, fastest = 0;
+		double bestQuality = Double.NEGATIVE_INFINITY;
+		for (int d = 0; d < depths.length; d++) {
+			if (nanosPerSimulation[d] < nanosPerSimulation[fastest])
+				fastest = d;
+			double simulations = fixedSimulations > 0 ? fixedSimulations
+					: moveMillis * 1e6 / (nanosPerSimulation[d] * relativeSimulationNanos) / numCandidates;
+			if (simulations < 1)
+				continue;
+			double q = getQuality(d, simulations);
+			if (q > bestQuality) {
+				bestQuality = q;
+				best = d;
+			}
+		}
+		return depths[bestQuality == Double.NEGATIVE_INFINITY ? fastest : best];
+	}
+
+	/**
+	 * Get the expected quality of a depth limit for a number of simulations per candidate play, interpolating
+	 * linearly in the logarithm of the number of simulations and clamping outside the calibrated range.
+	 * @param d depth index
+	 * @param simulations simulations per candidate play
+	 * @return expected mean game score
+	 */
+	private double getQuality(int d, double simulations) {
+		if (simulations <= budgets[0])
+			return quality[d][0];
+		for (int b = 1; b < budgets.length; b++)
+			if (simulations <= budgets[b]) {
+				double t = Math.log(simulations / budgets[b - 1]) / Math.log((double) budgets[b] / budgets[b - 1]);
+				return quality[d][b - 1] + t * (quality[d][b] - quality[d][b - 1]);
+			}
+		return quality[d][budgets.length - 1];
+	}
+
+	/**
+	 * Get the calibrated time of a simulation at a depth limit.
+	 * @param depth depth limit
+	 * @return nanoseconds per simulation, or NaN if the depth limit is not calibrated
+	 */
+	public double getNanosPerSimulation(int depth) {
+		for (int d = 0; d < depths.length; d++)
+			if (depths[d] == depth)
+				return nanosPerSimulation[d];
+		return Double.NaN;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(String.format("%5s %9s", "Depth", "ns/sim"));
+		for (int budget : budgets)
+			sb.append(String.format(" %6d", budget));
+		sb.append('\n');
+		for (int d = 0; d < depths.length; d++) {
+			sb.append(String.format("%5d %9.0f", depths[d], nanosPerSimulation[d]));
+			for (double q : quality[d])
+				sb.append(String.format(" %6.2f", q));
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Save a depth calibration to a file.
+	 * @param calibration depth calibration
+	 * @param path path of the file
+	 */
+	public static void save(DepthCalibration calibration, String path) {
+		try {
+			ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(path));
+			oos.writeObject(calibration);
+			oos.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Load a depth calibration from a file.
+	 * @param path path of the file
+	 * @return depth calibration, or null if it cannot be loaded
+	 */
+	public static DepthCalibration load(String path) {
+		try {
+			ObjectInputStream ois = new ObjectInputStream(new FileInputStream(path));
+			DepthCalibration calibration = (DepthCalibration) ois.readObject();
+			ois.close();
+			return calibration;
+		} catch (IOException | ClassNotFoundException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Create a player to calibrate.
+	 * @param playerName JIsraelsonPlayer or RandomMCPlayer
+	 * @param depthLimit depth limit
+	 * @return player
+	 */
+	private static MonteCarloPlayer createPlayer(String playerName, int depthLimit) {
+		if (playerName.equals("JIsraelsonPlayer"))
+			return new JIsraelsonPlayer(depthLimit);
+		if (playerName.equals("RandomMCPlayer"))
+			return new RandomMCPlayer(depthLimit);
+		throw new IllegalArgumentException("Unknown player: " + playerName);
+	}
+
+	/**
+	 * Gather a depth calibration by playing British games with each depth limit and number of simulations per
+	 * candidate play, all on the same seeds, and save it to the player's calibration file (JIsraelsonPlayer.DEPTH_FILENAME
+	 * or RandomMCPlayer.DEPTH_FILENAME).  Each depth limit is timed in the games with the most simulations.  A depth
+	 * limit of 0 is simulated once per candidate whatever the number of simulations, so it is played once.
+	 * @param args optional player name (JIsraelsonPlayer (default) or RandomMCPlayer), number of games per entry
+	 * (default 100), maximum depth limit (default 5) and maximum simulations per candidate play (default 4096)
+	 */
+	public static void main(String[] args) {
+		String playerName = args.length > 0 ? args[0] : "JIsraelsonPlayer";
+		int numGames = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		int maxDepth = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		int maxBudget = args.length > 3 ? Integer.parseInt(args[3]) : 4096;
+		String path = playerName.equals("RandomMCPlayer") ? RandomMCPlayer.DEPTH_FILENAME : JIsraelsonPlayer.DEPTH_FILENAME;
+		int numBudgets = 32 - Integer.numberOfLeadingZeros(maxBudget);
+		int[] depths = new int[maxDepth + 1];
+		int[] budgets = new int[numBudgets];
+		for (int d = 0; d <= maxDepth; d++)
+			depths[d] = d;
+		for (int b = 0; b < numBudgets; b++)
+			budgets[b] = 1 << b;
+		double[][] quality = new double[depths.length][numBudgets];
+		double[] nanosPerSimulation = new double[depths.length];
+		PokerSquaresPointSystem system = PokerSquaresPointSystem.getBritishPointSystem();
+		for (int d = 0; d < depths.length; d++) {
+			for (int b = 0; b < numBudgets; b++) {
+				if (depths[d] == 0 && b > 0) {
+					quality[d][b] = quality[d][0];
+					continue;
+				}
+				MonteCarloPlayer player = createPlayer(playerName, depths[d]);
+				player.setFixedSimulations(budgets[b]);
+				player.setDeadlineGuard(false);
+				PokerSquares game = new PokerSquares(player, system);
+				game.setVerbose(false);
+				game.setGameMillis(3600000L); // fixed simulations do not depend on time
+				PokerSquares.warmUp(player);
+				long total = 0, nanos = 0, simulations = 0;
+				for (int seed = 0; seed < numGames; seed++) {
+					player.setSeed(seed);
+					long startSimulations = player.getSimulations();
+					long start = System.nanoTime();
+					total += game.play(seed);
+					nanos += System.nanoTime() - start;
+					simulations += player.getSimulations() - startSimulations;
+				}
+				quality[d][b] = (double) total / numGames;
+				nanosPerSimulation[d] = (double) nanos / simulations; // timed with the most simulations, which dilute move overhead
+				System.out.printf("depth %d, %d simulations: mean score %.2f%n", depths[d], budgets[b], quality[d][b]);
+			}
+		}
+		DepthCalibration calibration = new DepthCalibration(depths, budgets, quality, nanosPerSimulation);
+		System.out.print(calibration);
+		save(calibration, path);
+		System.out.println("Saved to " + path);
+	}
+}
@@ -0,0 +1,14 @@
+/**
+ * EvenTimeManager - divides the remaining game time evenly across the remaining moves.  The forced last move is
+ * counted too, which keeps a conservative margin for game completion.
+ */
+public class EvenTimeManager implements TimeManager {
+
+	/* (non-Javadoc)
+	 * @see TimeManager#getMoveMillis(long, int)
+	 */
+	@Override
+	public long getMoveMillis(long millisRemaining, int remainingPlays) {
+		return millisRemaining / remainingPlays;
+	}
+}
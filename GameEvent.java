@@ -0,0 +1,35 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * GameEvent - a Java Flight Recorder event spanning one Poker Squares game, from the player's init call to the final
+ * score.
+ */
+@Name("PokerSquares.Game")
+@Label("Game")
+@Category("Poker Squares")
+@Description("One Poker Squares game")
+@StackTrace(false)
+public class GameEvent extends Event {
+
+	@Label("Player")
+	String player;
+
+	@Label("Point System")
+	@Description("Hand scores indexed by Poker hand classification")
+	String pointSystem;
+
+	@Label("Seed")
+	@Description("Seed of the deal, or -1 if the game was not seeded")
+	long seed;
+
+	@Label("Score")
+	int score;
+
+	@Label("Moves")
+	int moves;
+}
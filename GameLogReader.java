@@ -0,0 +1,106 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * GameLogReader - streams the records of a log written by GameLogSink one at a time, so that logs of millions of
+ * games can be processed without holding them in memory.  Logs of the current version and of version 1 are read.
+ */
+public class GameLogReader implements Closeable {
+
+	private final DataInputStream in; // buffered input
+	private final int version; // log format version
+
+	/**
+	 * Open a game log for reading.
+	 * @param path path of the log file
+	 * @throws IOException if the file cannot be opened or is not a game log of a supported version
+	 */
+	public GameLogReader(String path) throws IOException {
+		in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 1 << 16));
+		if (in.readInt() != GameLogSink.MAGIC) {
+			in.close();
+			throw new IOException(path + " is not a game log.");
+		}
+		version = in.readByte();
+		if (version != 1 && version != GameLogSink.VERSION) {
+			in.close();
+			throw new IOException("Unsupported game log version " + version + ".");
+		}
+	}
+
+	/**
+	 * Read the next game.
+	 * @return next game result, or null at the end of the log
+	 * @throws IOException if the log cannot be read or is truncated
+	 */
+	public GameResult next() throws IOException {
+		long seed;
+		try {
+			seed = in.readLong();
+		} catch (EOFException e) {
+			return null;
+		}
+		long gameMillis = in.readInt();
+		int[] scores = new int[PokerHand.NUM_HANDS];
+		for (int i = 0; i < scores.length; i++)
+			scores[i] = in.readByte();
+		String system = new PokerSquaresPointSystem(scores).getCode();
+		String player = in.readUTF();
+		int score = in.readShort();
+		MoveClock moveClock = MoveClock.WALL;
+		boolean playerSeeded = false;
+		long playerSeed = 0;
+		int fixedSimulations = 0;
+		if (version > 1) {
+			moveClock = MoveClock.values()[in.readByte()];
+			playerSeeded = in.readBoolean();
+			playerSeed = in.readLong();
+			fixedSimulations = in.readInt();
+		}
+		byte[] deal = new byte[in.readUnsignedByte()];
+		in.readFully(deal);
+		byte[] plays = new byte[in.readUnsignedByte()];
+		in.readFully(plays);
+		long[] moveNanos = new long[plays.length];
+		long[] moveCpuNanos = new long[version > 1 ? plays.length : 0];
+		long[] moveGcNanos = new long[version > 1 ? plays.length : 0];
+		for (int i = 0; i < moveNanos.length; i++) {
+			moveNanos[i] = readVarInt() * 1000;
+			if (version > 1) {
+				moveCpuNanos[i] = readVarInt() * 1000;
+				moveGcNanos[i] = readVarInt() * 1000;
+			}
+		}
+		return new GameResult(seed, player, system, score, moveNanos, moveCpuNanos, moveGcNanos, deal, plays,
+				gameMillis, moveClock, playerSeeded, playerSeed, fixedSimulations);
+	}
+
+	/**
+	 * Read a value written by GameLogSink's variable-length integer encoding.
+	 * @return non-negative value
+	 * @throws IOException if the value cannot be read
+	 */
+	private long readVarInt() throws IOException {
+		long value = 0;
+		int shift = 0;
+		int b;
+		do {
+			b = in.readUnsignedByte();
+			value |= (long) (b & 0x7f) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
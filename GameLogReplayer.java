@@ -0,0 +1,142 @@
+import java.io.IOException;
+
+/**
+ * GameLogReplayer - replays games recorded by GameLogSink.  A game can be re-driven through a PokerSquaresPlayer with
+ * the logged cards and time remaining to find where a deterministic player's choices diverge from the log, and logs
+ * can be bulk re-scored to check scoring changes against the recorded scores or to score the same grids under a
+ * different point system.
+ *
+ * The log records, for a ReplayablePlayer (e.g. a MonteCarloPlayer), whether it was seeded before the game, its seed
+ * and its fixed simulations per candidate play, and for every game the clock that charged its moves.  Replay applies
+ * them: the player gets the logged fixed simulations and seed, and each move is given the time remaining as the
+ * logged clock charged it.  A replayable player's game is thus reproduced if it was seeded before the game and
+ * simulated a fixed number of times (and did not ponder), since its moves then depend on neither earlier games nor
+ * time; games of unseeded or time-limited replayable players are skipped by main.  Other players are replayed as they
+ * are, which reproduces them only if they are deterministic.  Replay never warms the player (see PokerSquares.warmUp).
+ */
+public class GameLogReplayer {
+
+	/**
+	 * Re-drive a player through a logged game.  A ReplayablePlayer is given the logged fixed simulations, then the
+	 * logged point system with the harness's preparation time (PokerSquares.POINT_SYSTEM_MILLIS) and, if it was seeded
+	 * before the game, the logged seed.  The player is then given the logged cards in order and, for each move, the
+	 * game time budget less the time the logged clock charged for the previous moves.  Replay stops at the first move
+	 * whose position differs from the log.
+	 * @param game logged game
+	 * @param player player to replay
+	 * @return index of the first move that differs from the log, or -1 if every logged move was reproduced
+	 */
+	public static int replay(GameResult game, PokerSquaresPlayer player) {
+		ReplayablePlayer replayable = player instanceof ReplayablePlayer ? (ReplayablePlayer) player : null;
+		if (replayable != null)
+			replayable.setFixedSimulations(game.fixedSimulations);
+		player.setPointSystem(PokerSquaresPointSystem.fromCode(game.system), PokerSquares.POINT_SYSTEM_MILLIS);
+		if (replayable != null && game.playerSeeded)
+			replayable.setSeed(game.playerSeed);
+		player.init();
+		long nanosRemaining = game.gameMillis * 1000000L;
+		for (int i = 0; i < game.plays.length; i++) {
+			int[] play = player.getPlay(Card.getCard(game.deal[i]), nanosRemaining / 1000000L);
+			int position = play != null && play.length == 2 && play[0] >= 0 && play[0] < PokerSquares.SIZE
+					&& play[1] >= 0 && play[1] < PokerSquares.SIZE ? play[0] * PokerSquares.SIZE + play[1] : -1;
+			if (position != game.plays[i])
+				return i;
+			nanosRemaining -= game.moveClock.getChargedNanos(game.moveNanos[i],
+					game.moveCpuNanos.length > i ? game.moveCpuNanos[i] : 0,
+					game.moveGcNanos.length > i ? game.moveGcNanos[i] : 0);
+		}
+		return -1;
+	}
+
+	/**
+	 * Return whether a logged game can be reproduced by a player: always for players that are not ReplayablePlayers,
+	 * which are assumed to be deterministic, and otherwise only if the logged player was seeded before the game and
+	 * simulated a fixed number of times.
+	 * @param game logged game
+	 * @param player player to replay
+	 * @return whether replay can reproduce the game
+	 */
+	public static boolean isReproducible(GameResult game, PokerSquaresPlayer player) {
+		return !(player instanceof ReplayablePlayer) || game.playerSeeded && game.fixedSimulations > 0;
+	}
+
+	/**
+	 * Score the final grid of a logged game.
+	 * @param game logged game
+	 * @param system point system, or null for the logged point system
+	 * @return score of the final grid, or the logged score if the game was not completed
+	 */
+	public static int rescore(GameResult game, PokerSquaresPointSystem system) {
+		if (!game.isComplete())
+			return game.score;
+		if (system == null)
+			system = PokerSquaresPointSystem.fromCode(game.system);
+		return system.getScore(game.getGrid());
+	}
+
+	/**
+	 * Process a game log.  Usage:
+	 * <pre>
+	 * java GameLogReplayer rescore &lt;log&gt; [system code]
+	 * java GameLogReplayer replay &lt;log&gt; &lt;player class&gt;
+	 * </pre>
+	 * rescore re-scores every completed game, counting disagreements with the logged scores (or, given a point system
+	 * code such as 0/1/3/6/12/5/10/16/30/30, summarizing the scores under that system).  replay re-drives a new
+	 * instance of the given player class through every reproducible game (see isReproducible) and counts the games
+	 * whose moves diverge from the log.
+	 * @param args command-line arguments
+	 * @throws IOException if the log cannot be read
+	 * @throws ReflectiveOperationException if the player class cannot be instantiated
+	 */
+	public static void main(String[] args) throws IOException, ReflectiveOperationException {
+		if (args.length < 2 || !(args[0].equals("rescore") || args[0].equals("replay") && args.length > 2)) {
+			System.err.println("Usage: java GameLogReplayer rescore <log> [system code]");
+			System.err.println("       java GameLogReplayer replay <log> <player class>");
+			return;
+		}
+		ScoreSummary logged = new ScoreSummary();
+		ScoreSummary replayed = new ScoreSummary();
+		int games = 0, incomplete = 0, skipped = 0, mismatches = 0;
+		try (GameLogReader reader = new GameLogReader(args[1])) {
+			if (args[0].equals("rescore")) {
+				PokerSquaresPointSystem system = args.length > 2 ? PokerSquaresPointSystem.fromCode(args[2]) : null;
+				for (GameResult game = reader.next(); game != null; game = reader.next()) {
+					games++;
+					if (!game.isComplete()) {
+						incomplete++;
+						continue;
+					}
+					int score = rescore(game, system);
+					logged.add(game.score);
+					replayed.add(score);
+					if (system == null && score != game.score) {
+						mismatches++;
+						System.out.printf("Seed %d: logged score %d, rescored %d%n", game.seed, game.score, score);
+					}
+				}
+			}
+			else {
+				Class<?> playerClass = Class.forName(args[2]);
+				for (GameResult game = reader.next(); game != null; game = reader.next()) {
+					games++;
+					PokerSquaresPlayer player = (PokerSquaresPlayer) playerClass.getDeclaredConstructor().newInstance();
+					if (!isReproducible(game, player)) {
+						skipped++;
+						continue;
+					}
+					int move = replay(game, player);
+					if (move >= 0) {
+						mismatches++;
+						System.out.printf("Seed %d: diverged at move %d%n", game.seed, move);
+					}
+				}
+			}
+		}
+		System.out.printf("Games: %d, incomplete: %d, not reproducible: %d, mismatches: %d%n", games, incomplete,
+				skipped, mismatches);
+		if (logged.getCount() > 0) {
+			System.out.println("Logged " + logged);
+			System.out.println("Rescored " + replayed);
+		}
+	}
+}
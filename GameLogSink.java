@@ -0,0 +1,94 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * GameLogSink - writes a compact binary log from which the games of replayable players can be replayed
+ * deterministically.  The file begins with a magic number and format version.  Each record holds the seed (long), the
+ * game time budget in milliseconds (int), the point system's hand scores (one signed byte each), the player name (UTF),
+ * the score (short), the move clock (byte, its ordinal), whether the player was seeded before the game (boolean), the
+ * player's seed (long), its fixed simulations per candidate play (int, 0 if it simulated for the time given), the
+ * number of cards dealt (byte) and their card identification numbers (byte each), the number of moves (byte) and their
+ * row-major positions (byte each, -1 for a malformed play), and the wall-clock, CPU and garbage collection pause
+ * microseconds of each move as unsigned variable-length integers, so that a replay can charge the moves with the
+ * logged clock.  A typical complete game takes about 230 bytes, so the log can be left on during long tournaments.
+ * Logs are read back with GameLogReader and replayed with GameLogReplayer.
+ *
+ * Version 1 logs lack the clock, the player's seed and fixed simulations and the CPU and pause times; GameLogReader
+ * reads them as wall-clock games of unseeded players.
+ */
+public class GameLogSink implements GameResultSink {
+
+	public static final int MAGIC = 0x50534c47; // "PSLG"
+	public static final int VERSION = 2; // log format version
+	private final DataOutputStream out; // buffered output
+
+	/**
+	 * Create a game log writing to the given file, replacing its contents.
+	 * @param path path of the log file
+	 * @throws IOException if the file cannot be opened or written
+	 */
+	public GameLogSink(String path) throws IOException {
+		out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16));
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+	}
+
+	/* (non-Javadoc)
+	 * @see GameResultSink#record(GameResult)
+	 */
+	@Override
+	public synchronized void record(GameResult result) {
+		try {
+			out.writeLong(result.seed);
+			out.writeInt((int) result.gameMillis);
+			int[] scores = PokerSquaresPointSystem.fromCode(result.system).getScoreTable();
+			for (int i = 0; i < PokerHand.NUM_HANDS; i++)
+				out.writeByte(scores[i]);
+			out.writeUTF(result.player);
+			out.writeShort(result.score);
+			out.writeByte(result.moveClock.ordinal());
+			out.writeBoolean(result.playerSeeded);
+			out.writeLong(result.playerSeed);
+			out.writeInt(result.fixedSimulations);
+			out.writeByte(result.deal.length);
+			out.write(result.deal);
+			out.writeByte(result.plays.length);
+			out.write(result.plays);
+			for (int i = 0; i < result.moveNanos.length; i++) {
+				writeVarInt(result.moveNanos[i] / 1000);
+				writeVarInt(result.moveCpuNanos.length > i ? result.moveCpuNanos[i] / 1000 : 0);
+				writeVarInt(result.moveGcNanos.length > i ? result.moveGcNanos[i] / 1000 : 0);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Write a non-negative value seven bits at a time, least significant group first, with the high bit of each byte
+	 * set when more bytes follow.
+	 * @param value non-negative value
+	 * @throws IOException if the value cannot be written
+	 */
+	private void writeVarInt(long value) throws IOException {
+		while (value >= 0x80) {
+			out.writeByte((int) (value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	/* (non-Javadoc)
+	 * @see GameResultSink#close()
+	 */
+	@Override
+	public synchronized void close() {
+		try {
+			out.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
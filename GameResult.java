@@ -0,0 +1,213 @@
+/**
+ * GameResult - the outcome of one Poker Squares game as recorded by a GameResultSink.
+ */
+public class GameResult {
+
+	/**
+	 * seed of the game's deal, or -1 if the game was not seeded
+	 */
+	public final long seed;
+	/**
+	 * name of the player
+	 */
+	public final String player;
+	/**
+	 * compact representation of the point system (see PokerSquaresPointSystem.getCode)
+	 */
+	public final String system;
+	/**
+	 * final game score, including the penalty score of a game lost to a timeout or illegal play
+	 */
+	public final int score;
+	/**
+	 * wall-clock nanoseconds taken by each getPlay call, one element per move made
+	 */
+	public final long[] moveNanos;
+	/**
+	 * CPU nanoseconds of the calling thread during each getPlay call (may be empty if not recorded)
+	 */
+	public final long[] moveCpuNanos;
+	/**
+	 * nanoseconds of garbage collection pauses overlapping each getPlay call (may be empty if not recorded)
+	 */
+	public final long[] moveGcNanos;
+	/**
+	 * card identification numbers of the cards dealt, in deal order (may be empty if not recorded)
+	 */
+	public final byte[] deal;
+	/**
+	 * row-major position returned for each move, or -1 for a malformed or out-of-range play (may be empty if not
+	 * recorded)
+	 */
+	public final byte[] plays;
+	/**
+	 * milliseconds allotted to the player for the game
+	 */
+	public final long gameMillis;
+	/**
+	 * clock that charged the moves against the game time budget
+	 */
+	public final MoveClock moveClock;
+	/**
+	 * whether the player's pseudorandom number generators were seeded (with playerSeed) before the game, rather than
+	 * continuing from earlier games (see ReplayablePlayer)
+	 */
+	public final boolean playerSeeded;
+	/**
+	 * seed given to the player before the game, if playerSeeded
+	 */
+	public final long playerSeed;
+	/**
+	 * fixed number of simulations per candidate play of the player, or 0 if it simulated for the time given or does
+	 * not simulate
+	 */
+	public final int fixedSimulations;
+
+	/**
+	 * Create a game result without the deal and plays.
+	 * @param seed seed of the game's deal, or -1 if the game was not seeded
+	 * @param player name of the player
+	 * @param system compact representation of the point system
+	 * @param score final game score
+	 * @param moveNanos nanoseconds taken by each getPlay call
+	 */
+	public GameResult(long seed, String player, String system, int score, long[] moveNanos) {
+		this(seed, player, system, score, moveNanos, new byte[0], new byte[0], PokerSquares.GAME_MILLIS);
+	}
+
+	/**
+	 * Create a game result without the CPU and garbage collection times of each move.
+	 * @param seed seed of the game's deal, or -1 if the game was not seeded
+	 * @param player name of the player
+	 * @param system compact representation of the point system
+	 * @param score final game score
+	 * @param moveNanos wall-clock nanoseconds taken by each getPlay call
+	 * @param deal card identification numbers of the cards dealt, in deal order
+	 * @param plays row-major position returned for each move, or -1 for a malformed or out-of-range play
+	 * @param gameMillis milliseconds allotted to the player for the game
+	 */
+	public GameResult(long seed, String player, String system, int score, long[] moveNanos, byte[] deal, byte[] plays,
+			long gameMillis) {
+		this(seed, player, system, score, moveNanos, new long[0], new long[0], deal, plays, gameMillis);
+	}
+
+	/**
+	 * Create a game result.
+	 * @param seed seed of the game's deal, or -1 if the game was not seeded
+	 * @param player name of the player
+	 * @param system compact representation of the point system
+	 * @param score final game score
+	 * @param moveNanos wall-clock nanoseconds taken by each getPlay call
+	 * @param moveCpuNanos CPU nanoseconds of the calling thread during each getPlay call
+	 * @param moveGcNanos nanoseconds of garbage collection pauses overlapping each getPlay call
+	 * @param deal card identification numbers of the cards dealt, in deal order
+	 * @param plays row-major position returned for each move, or -1 for a malformed or out-of-range play
+	 * @param gameMillis milliseconds allotted to the player for the game
+	 */
+	public GameResult(long seed, String player, String system, int score, long[] moveNanos, long[] moveCpuNanos,
+			long[] moveGcNanos, byte[] deal, byte[] plays, long gameMillis) {
+		this(seed, player, system, score, moveNanos, moveCpuNanos, moveGcNanos, deal, plays, gameMillis, MoveClock.WALL,
+				false, 0, 0);
+	}
+
+	/**
+	 * Create a game result with what a replay must apply to reproduce the player's moves.
+	 * @param seed seed of the game's deal, or -1 if the game was not seeded
+	 * @param player name of the player
+	 * @param system compact representation of the point system
+	 * @param score final game score
+	 * @param moveNanos wall-clock nanoseconds taken by each getPlay call
+	 * @param moveCpuNanos CPU nanoseconds of the calling thread during each getPlay call
+	 * @param moveGcNanos nanoseconds of garbage collection pauses overlapping each getPlay call
+	 * @param deal card identification numbers of the cards dealt, in deal order
+	 * @param plays row-major position returned for each move, or -1 for a malformed or out-of-range play
+	 * @param gameMillis milliseconds allotted to the player for the game
+	 * @param moveClock clock that charged the moves
+	 * @param playerSeeded whether the player was seeded before the game
+	 * @param playerSeed seed given to the player, if seeded
+	 * @param fixedSimulations fixed number of simulations per candidate play, or 0
+	 */
+	public GameResult(long seed, String player, String system, int score, long[] moveNanos, long[] moveCpuNanos,
+			long[] moveGcNanos, byte[] deal, byte[] plays, long gameMillis, MoveClock moveClock, boolean playerSeeded,
+			long playerSeed, int fixedSimulations) {
+		this.seed = seed;
+		this.player = player;
+		this.system = system;
+		this.score = score;
+		this.moveNanos = moveNanos;
+		this.moveCpuNanos = moveCpuNanos;
+		this.moveGcNanos = moveGcNanos;
+		this.deal = deal;
+		this.plays = plays;
+		this.gameMillis = gameMillis;
+		this.moveClock = moveClock;
+		this.playerSeeded = playerSeeded;
+		this.playerSeed = playerSeed;
+		this.fixedSimulations = fixedSimulations;
+	}
+
+	/**
+	 * Return whether all cells were filled by legal plays, so that the game's final grid can be rebuilt.
+	 * @return whether the game was completed
+	 */
+	public boolean isComplete() {
+		int size = PokerSquares.SIZE * PokerSquares.SIZE;
+		if (plays.length != size || deal.length < size)
+			return false;
+		boolean[] filled = new boolean[size];
+		for (byte play : plays) {
+			if (play < 0 || filled[play])
+				return false;
+			filled[play] = true;
+		}
+		return true;
+	}
+
+	/**
+	 * Rebuild the final grid of a completed game.
+	 * @return 2D Card array of the final grid
+	 */
+	public Card[][] getGrid() {
+		Card[][] grid = new Card[PokerSquares.SIZE][PokerSquares.SIZE];
+		for (int i = 0; i < plays.length; i++)
+			if (plays[i] >= 0)
+				grid[plays[i] / PokerSquares.SIZE][plays[i] % PokerSquares.SIZE] = Card.getCard(deal[i]);
+		return grid;
+	}
+
+	/**
+	 * Get the total nanoseconds taken by the player's getPlay calls.
+	 * @return total nanoseconds used by the player
+	 */
+	public long getTimeUsedNanos() {
+		return sum(moveNanos);
+	}
+
+	/**
+	 * Get the total CPU time of the player's calling thread over all moves.
+	 * @return total CPU nanoseconds, or 0 if not recorded
+	 */
+	public long getCpuNanos() {
+		return sum(moveCpuNanos);
+	}
+
+	/**
+	 * Get the total garbage collection pause time overlapping the player's moves.
+	 * @return total pause nanoseconds, or 0 if not recorded
+	 */
+	public long getGcNanos() {
+		return sum(moveGcNanos);
+	}
+
+	/**
+	 * Sum an array of times.
+	 * @param nanos times in nanoseconds
+	 * @return total nanoseconds
+	 */
+	private static long sum(long[] nanos) {
+		long total = 0;
+		for (long n : nanos)
+			total += n;
+		return total;
+	}
+}
@@ -0,0 +1,17 @@
+/**
+ * GameResultSink - a destination for the results of played games.
+ * Sinks may be shared by games played on several threads, so implementations must be thread-safe.
+ */
+public interface GameResultSink {
+
+	/**
+	 * record - records the result of one game.
+	 * @param result - game result
+	 */
+	void record(GameResult result);
+
+	/**
+	 * close - flushes any buffered results and releases the sink's resources.
+	 */
+	void close();
+}
@@ -0,0 +1,102 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+/**
+ * GcPauseMonitor - records recent stop-the-world garbage collection pauses from the garbage collector notification
+ * MXBeans so that the overlap of a pause with a timed interval can be measured.  Pause times have the millisecond
+ * resolution of GcInfo.  Notifications arrive asynchronously just after each collection, so a pause ending within
+ * moments of the end of an interval may not yet be counted.  Collections reported as concurrent are not pauses and
+ * are ignored.
+ */
+public class GcPauseMonitor {
+
+	private static final int CAPACITY = 256; // number of recent pauses retained
+	private static GcPauseMonitor instance; // shared monitor, created on first use
+	private final long baseNanos; // System.nanoTime() value at JVM start
+	private final long[] startNanos = new long[CAPACITY]; // pause start times, circular
+	private final long[] endNanos = new long[CAPACITY]; // pause end times, circular
+	private long numPauses; // number of pauses recorded
+	private long totalPauseNanos; // total nanoseconds of pauses recorded
+
+	/**
+	 * Get the shared monitor, registering it with the garbage collector MXBeans on first use.
+	 * @return shared monitor
+	 */
+	public static synchronized GcPauseMonitor getInstance() {
+		if (instance == null)
+			instance = new GcPauseMonitor();
+		return instance;
+	}
+
+	/**
+	 * Create a monitor listening to every garbage collector MXBean that emits notifications.
+	 */
+	private GcPauseMonitor() {
+		baseNanos = System.nanoTime() - ManagementFactory.getRuntimeMXBean().getUptime() * 1000000L;
+		NotificationListener listener = new NotificationListener() {
+			@Override
+			public void handleNotification(Notification notification, Object handback) {
+				if (notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION))
+					record(GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData()));
+			}
+		};
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+			if (bean instanceof NotificationEmitter)
+				((NotificationEmitter) bean).addNotificationListener(listener, null, null);
+	}
+
+	/**
+	 * Record a collection if it paused the application.
+	 * @param info collection notification
+	 */
+	private synchronized void record(GarbageCollectionNotificationInfo info) {
+		if (info.getGcAction().toLowerCase().contains("concurrent") || info.getGcName().contains("Concurrent"))
+			return;
+		GcInfo gcInfo = info.getGcInfo();
+		int i = (int) (numPauses++ % CAPACITY);
+		startNanos[i] = baseNanos + gcInfo.getStartTime() * 1000000L;
+		endNanos[i] = baseNanos + gcInfo.getEndTime() * 1000000L;
+		totalPauseNanos += endNanos[i] - startNanos[i];
+	}
+
+	/**
+	 * Get the nanoseconds of recorded pauses overlapping an interval.
+	 * @param fromNanos System.nanoTime() at the start of the interval
+	 * @param toNanos System.nanoTime() at the end of the interval
+	 * @return nanoseconds of pause overlap
+	 */
+	public synchronized long getPauseNanos(long fromNanos, long toNanos) {
+		long overlap = 0;
+		for (long p = numPauses - 1; p >= 0 && p >= numPauses - CAPACITY; p--) {
+			int i = (int) (p % CAPACITY);
+			if (endNanos[i] <= fromNanos)
+				break;
+			overlap += Math.max(0, Math.min(toNanos, endNanos[i]) - Math.max(fromNanos, startNanos[i]));
+		}
+		return overlap;
+	}
+
+	/**
+	 * Get the number of pauses recorded since the monitor was created.
+	 * @return number of pauses
+	 */
+	public synchronized long getNumPauses() {
+		return numPauses;
+	}
+
+	/**
+	 * Get the total nanoseconds of pauses recorded since the monitor was created.
+	 * @return total pause nanoseconds
+	 */
+	public synchronized long getTotalPauseNanos() {
+		return totalPauseNanos;
+	}
+}
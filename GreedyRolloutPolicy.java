@@ -0,0 +1,70 @@
+import java.util.Random;
+
+/**
+ * GreedyRolloutPolicy - an epsilon-greedy rollout policy on incremental line score.
+ * With probability epsilon, the card is placed randomly.  Otherwise it is placed where it most increases the current
+ * score of its row and column (counting the pairs, trips, etc. of partial lines), breaking ties in favor of the
+ * first such position after a random starting offset.
+ */
+public class GreedyRolloutPolicy implements RolloutPolicy {
+
+	private final int SIZE = PokerSquares.SIZE;
+	private final double epsilon; // probability of a random placement
+	private PokerSquaresPointSystem system; // current point system
+	private Card[] column = new Card[SIZE]; // scratch column hand
+
+	/**
+	 * Create an epsilon-greedy rollout policy.
+	 * @param epsilon probability of a random placement
+	 */
+	public GreedyRolloutPolicy(double epsilon) {
+		this.epsilon = epsilon;
+	}
+
+	/* (non-Javadoc)
+	 * @see RolloutPolicy#setPointSystem(PokerSquaresPointSystem)
+	 */
+	@Override
+	public void setPointSystem(PokerSquaresPointSystem system) {
+		this.system = system;
+	}
+
+	/* (non-Javadoc)
+	 * @see RolloutPolicy#choosePlay(Card[][], Card, int[], int, Random)
+	 */
+	@Override
+	public int choosePlay(Card[][] grid, Card card, int[] legalPlays, int numLegal, Random random) {
+		int offset = random.nextInt(numLegal);
+		if (epsilon > 0 && random.nextDouble() < epsilon)
+			return legalPlays[offset];
+		int bestPlay = legalPlays[offset];
+		int bestDelta = Integer.MIN_VALUE;
+		for (int i = 0; i < numLegal; i++) {
+			int play = legalPlays[(offset + i) % numLegal];
+			int row = play / SIZE, col = play % SIZE;
+			int before = system.getHandScore(grid[row]) + system.getHandScore(getColumn(grid, col));
+			grid[row][col] = card;
+			int after = system.getHandScore(grid[row]) + system.getHandScore(getColumn(grid, col));
+			grid[row][col] = null;
+			if (after - before > bestDelta) {
+				bestDelta = after - before;
+				bestPlay = play;
+			}
+		}
+		return bestPlay;
+	}
+
+	private Card[] getColumn(Card[][] grid, int col) {
+		for (int row = 0; row < SIZE; row++)
+			column[row] = grid[row][col];
+		return column;
+	}
+
+	/* (non-Javadoc)
+	 * @see RolloutPolicy#getName()
+	 */
+	@Override
+	public String getName() {
+		return "Greedy" + epsilon;
+	}
+}
@@ -0,0 +1,89 @@
+import java.util.Random;
+
+/**
+ * HandValueRolloutPolicy - a rollout policy on the line-building values of the PointSystemAnalyzer of the point system.
+ * The card is placed where it most increases the values of its row and column, breaking ties in favor of the first
+ * such position after a random starting offset.  A complete line is valued at its hand value (negative for the hand
+ * classes the analyzer avoids), and a partial line at the pair value for each pair of equal ranks plus, while all of
+ * its two or more cards share a suit, the suited value for each card after the first.  Under a system with a negative
+ * suited value, the policy thus mixes suits, and it breaks lines that would end as avoided hands.
+ *
+ * Unlike LookaheadRolloutPolicy, the policy makes no table lookups, only a pass over the cards of the two lines.
+ */
+public class HandValueRolloutPolicy implements RolloutPolicy {
+
+	private final int SIZE = PokerSquares.SIZE;
+	private final int NUM_RANKS = Card.NUM_RANKS;
+	private PointSystemAnalyzer analyzer; // analyzer of the current point system
+	private double suitedValue, pairValue; // line-building values of the current point system
+	private Card[] line = new Card[SIZE]; // scratch line hand
+	private int[] rankCounts = new int[NUM_RANKS]; // scratch rank counts of a line
+
+	/* (non-Javadoc)
+	 * @see RolloutPolicy#setPointSystem(PokerSquaresPointSystem)
+	 */
+	@Override
+	public void setPointSystem(PokerSquaresPointSystem system) {
+		analyzer = PointSystemAnalyzer.getAnalyzer(system);
+		suitedValue = analyzer.getSuitedValue();
+		pairValue = analyzer.getPairValue();
+	}
+
+	/* (non-Javadoc)
+	 * @see RolloutPolicy#choosePlay(Card[][], Card, int[], int, Random)
+	 */
+	@Override
+	public int choosePlay(Card[][] grid, Card card, int[] legalPlays, int numLegal, Random random) {
+		int offset = random.nextInt(numLegal);
+		int bestPlay = legalPlays[offset];
+		double bestDelta = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < numLegal; i++) {
+			int play = legalPlays[(offset + i) % numLegal];
+			int row = play / SIZE, col = play % SIZE;
+			double before = getLineValue(grid, row) + getLineValue(grid, SIZE + col);
+			grid[row][col] = card;
+			double after = getLineValue(grid, row) + getLineValue(grid, SIZE + col);
+			grid[row][col] = null;
+			if (after - before > bestDelta) {
+				bestDelta = after - before;
+				bestPlay = play;
+			}
+		}
+		return bestPlay;
+	}
+
+	/**
+	 * Get the line-building value of a row or column.
+	 * @param grid grid
+	 * @param lineIndex row index, or SIZE plus column index
+	 * @return hand value of a complete line, or pair and suited values of a partial line
+	 */
+	private double getLineValue(Card[][] grid, int lineIndex) {
+		int numCards = 0;
+		for (int i = 0; i < SIZE; i++) {
+			Card card = lineIndex < SIZE ? grid[lineIndex][i] : grid[i][lineIndex - SIZE];
+			if (card != null)
+				line[numCards++] = card;
+		}
+		if (numCards == SIZE)
+			return analyzer.getHandValue(PokerHand.getPokerHand(line).id);
+		int numPairs = 0;
+		boolean suited = numCards > 1;
+		for (int i = 0; i < numCards; i++) {
+			numPairs += rankCounts[line[i].getRank()]++;
+			if (line[i].getSuit() != line[0].getSuit())
+				suited = false;
+		}
+		for (int i = 0; i < numCards; i++)
+			rankCounts[line[i].getRank()] = 0;
+		return numPairs * pairValue + (suited ? (numCards - 1) * suitedValue : 0);
+	}
+
+	/* (non-Javadoc)
+	 * @see RolloutPolicy#getName()
+	 */
+	@Override
+	public String getName() {
+		return "HandValue";
+	}
+}
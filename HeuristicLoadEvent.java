@@ -0,0 +1,27 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * HeuristicLoadEvent - a Java Flight Recorder event spanning the load of a player's heuristic from disk.
+ */
+@Name("PokerSquares.HeuristicLoad")
+@Label("Heuristic Load")
+@Category("Poker Squares")
+@Description("Load of a player's heuristic from disk")
+@StackTrace(false)
+public class HeuristicLoadEvent extends Event {
+
+	@Label("Player")
+	String player;
+
+	@Label("Path")
+	String path;
+
+	@Label("Entries")
+	@Description("Number of entries or weights loaded, or -1 if the load failed")
+	int entries;
+}
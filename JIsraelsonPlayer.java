@@ -1,6 +1,5 @@
-import java.util.ArrayList;
-import java.util.Random;
 import java.util.HashMap;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.ObjectInputStream;
@@ -23,158 +22,84 @@ import java.lang.ClassNotFoundException;
  * @author Todd W. Neller (Original)
  * @author Michael W. Fleming (Modifications)
  */
-public class JIsraelsonPlayer implements PokerSquaresPlayer {
-	// Unchaged from the RandomMCPlayer:
-	private final int SIZE = 5;
-	private final int NUM_POS = SIZE * SIZE;
-	private final int NUM_CARDS = Card.NUM_CARDS;
-	private Random random = new Random();
-	private int[] plays = new int[NUM_POS];
-	private int depthLimit = 3;
-	private int numPlays = 0;
+public class JIsraelsonPlayer extends MonteCarloPlayer {
+	private static final int SIZE = PokerSquares.SIZE;
+	// The point system
 	private PokerSquaresPointSystem system;
-	private Card[][] grid = new Card[SIZE][SIZE];
-	private Card[] simDeck = Card.getAllCards();
-	private int[][] legalPlayLists = new int[NUM_POS][NUM_POS];
 
 	// Variables that I added:
 
 	// The filename for the heuristic
 	public static final String FILENAME = "JIsraelsonHeuristic.obj";
+	// The filename for the final hand class probabilities of each encoding
+	public static final String CLASS_FILENAME = "JIsraelsonHandClasses.obj";
+	// The filename for the depth calibration (see DepthCalibration)
+	public static final String DEPTH_FILENAME = "JIsraelsonDepthCalibration.obj";
 	// The hashmap in which the heuristic's values are stored
 	private HashMap<String, Double> heuristic;
+	// The final hand class probabilities of the lines of the games in which each
+	// encoding was seen, or null if the CLASS_FILENAME file is missing
+	private HashMap<String, double[]> handClasses;
+	// The point system the heuristic was weighted for, or null
+	private PokerSquaresPointSystem heuristicSystem;
+	// The base 2 logarithm of the number of slots of the line heuristic memo
+	private static final int LINE_MEMO_BITS = 17;
+	// The heuristic value of each line state scored so far, keyed by
+	// getLineKey(). It is cleared whenever the heuristic is (re)loaded.
+	// It only saves repeating the lookup; no rollout values are kept.
+	private LineHeuristicMemo lineMemo = new LineHeuristicMemo(LINE_MEMO_BITS);
+	// Whether the line heuristic memo is kept from one game to the next
+	private boolean memoAcrossGames = true;
 
 	/****************************************************************/
-	// These methods are largely unchanged from the RandomMCPlayer.
-	// I have noted in comments where I made modifications.
+	// The Monte Carlo search itself is the MonteCarloSearch shared with the
+	// RandomMCPlayer (see MonteCarloPlayer). These methods plug the heuristic
+	// into it as its leaf evaluator.
 	/****************************************************************/
 
 	public JIsraelsonPlayer() {
+		this(3);
 	}
 
 	public JIsraelsonPlayer(int depthLimit) {
-		this.depthLimit = depthLimit;
-	}
-
-	@Override
-	public void init() {
-		this.heuristic = loadEncoding(FILENAME);
-		for (int row = 0; row < SIZE; row++)
-			for (int col = 0; col < SIZE; col++)
-				grid[row][col] = null;
-		numPlays = 0;
-		for (int i = 0; i < NUM_POS; i++)
-			plays[i] = i;
-	}
-
-	@Override
-	public int[] getPlay(Card card, long millisRemaining) {
-		int cardIndex = numPlays;
-		while (!card.equals(simDeck[cardIndex]))
-			cardIndex++;
-		simDeck[cardIndex] = simDeck[numPlays];
-		simDeck[numPlays] = card;
-
-		if (numPlays < 24) {
-			int remainingPlays = NUM_POS - numPlays;
-			long millisPerPlay = millisRemaining / remainingPlays;
-			long millisPerMoveEval = millisPerPlay / remainingPlays;
-			System.arraycopy(plays, numPlays, legalPlayLists[numPlays], 0, remainingPlays);
-			double maxAverageScore = Double.NEGATIVE_INFINITY;
-			ArrayList<Integer> bestPlays = new ArrayList<Integer>();
-			for (int i = 0; i < remainingPlays; i++) {
-				int play = legalPlayLists[numPlays][i];
-				long startTime = System.currentTimeMillis();
-				long endTime = startTime + millisPerMoveEval;
-				makePlay(card, play / SIZE, play % SIZE);
-				int simCount = 0;
-				double scoreTotal = 0.0;
-				while (System.currentTimeMillis() < endTime) {
-					scoreTotal += simPlay(depthLimit);
-					simCount++;
-				}
-				undoPlay();
-				double averageScore = scoreTotal / simCount;
-				if (averageScore >= maxAverageScore) {
-					if (averageScore > maxAverageScore)
-						bestPlays.clear();
-					bestPlays.add(play);
-					maxAverageScore = averageScore;
-				}
+		super(depthLimit);
+		// The heuristic scores each line on its own, so a PreRankingAllocator can
+		// rank the candidate plays with it
+		search.setLeafEvaluator(new LineLeafEvaluator() {
+			@Override
+			public void setPointSystem(PokerSquaresPointSystem system) {
+				// The heuristic is loaded for the point system by loadHeuristic()
 			}
-			int bestPlay = bestPlays.get(random.nextInt(bestPlays.size()));
-			int bestPlayIndex = numPlays;
-			while (plays[bestPlayIndex] != bestPlay)
-				bestPlayIndex++;
-			plays[bestPlayIndex] = plays[numPlays];
-			plays[numPlays] = bestPlay;
-		}
 
-		int[] playPos = { plays[numPlays] / SIZE, plays[numPlays] % SIZE };
-		makePlay(card, playPos[0], playPos[1]);
-		return playPos;
-	}
-
-	/*
-	 * This function has one minor change which is noted below. The rest is
-	 * unchanged from RandomMCPlayer
-	 */
-	private double simPlay(int depthLimit) {
-		if (depthLimit == 0) {
-			return system.getScore(grid);
-		} else {
-			double score = Double.MIN_VALUE;
-			int depth = Math.min(depthLimit, NUM_POS - numPlays);
-			for (int d = 0; d < depth; d++) {
-				int c = random.nextInt(NUM_CARDS - numPlays) + numPlays;
-				Card card = simDeck[c];
-				int remainingPlays = NUM_POS - numPlays;
-				System.arraycopy(plays, numPlays, legalPlayLists[numPlays], 0, remainingPlays);
-				int c2 = random.nextInt(remainingPlays);
-				int play = legalPlayLists[numPlays][c2];
-				makePlay(card, play / SIZE, play % SIZE);
-			}
-			/*
-			 * CHANGE: The score is no longer calculated as the current score for the grid.
-			 * Now, the method getTotalHeuristicScore() is called, and the score for the
-			 * grid, determined by the heuristic, is returned.
-			 */
-			score = getTotalHeuristicScore(grid);
-
-			for (int d = 0; d < depth; d++) {
-				undoPlay();
+			@Override
+			public double evaluate(Card[][] grid, int numPlays) {
+				return getLeafScore(grid, numPlays);
 			}
-			return score;
-		}
-	}
 
-	public void makePlay(Card card, int row, int col) {
-		int cardIndex = numPlays;
-		while (!card.equals(simDeck[cardIndex]))
-			cardIndex++;
-		simDeck[cardIndex] = simDeck[numPlays];
-		simDeck[numPlays] = card;
-
-		grid[row][col] = card;
-		int play = row * SIZE + col;
-		int j = 0;
-		while (plays[j] != play)
-			j++;
-		plays[j] = plays[numPlays];
-		plays[numPlays] = play;
-
-		numPlays++;
+			@Override
+			public double evaluateLine(Card[] line, int numPlays) {
+				return getHeuristicScore(line, numPlays);
+			}
+		});
 	}
 
-	public void undoPlay() {
-		numPlays--;
-		int play = plays[numPlays];
-		grid[play / SIZE][play % SIZE] = null;
+	@Override
+	public void init() {
+		// Stop pondering before the heuristic it simulates with is reloaded
+		stopPondering();
+		loadHeuristic();
+		if (!memoAcrossGames) {
+			lineMemo.clear();
+		}
+		super.init();
 	}
 
 	@Override
 	public void setPointSystem(PokerSquaresPointSystem system, long millis) {
+		stopPondering();
 		this.system = system;
+		loadHeuristic();
+		super.setPointSystem(system, millis);
 	}
 
 	/****************************************************************/
@@ -193,6 +118,16 @@ public class JIsraelsonPlayer implements PokerSquaresPlayer {
 		return "JIsraelsonPlayer";
 	}
 
+	/*
+	 * Get the file of the depth calibration that is loaded with auto depth.
+	 *
+	 * @return The filename for the depth calibration.
+	 */
+	@Override
+	protected String getDepthCalibrationFilename() {
+		return DEPTH_FILENAME;
+	}
+
 	/*
 	 * Play a game with the British Point System.
 	 *
@@ -201,7 +136,96 @@ public class JIsraelsonPlayer implements PokerSquaresPlayer {
 	public static void main(String[] args) {
 		PokerSquaresPointSystem system = PokerSquaresPointSystem.getBritishPointSystem();
 		System.out.println(system);
-		new PokerSquares(new JIsraelsonPlayer(), system).play();
+		JIsraelsonPlayer player = new JIsraelsonPlayer();
+		PokerSquares game = new PokerSquares(player, system);
+		PokerSquares.warmUp(player);
+		game.play();
+		System.out.println("Line heuristic memo: " + player.getLineMemo());
+	}
+
+	/*
+	 * Load the heuristic used by getLeafScore(). Called when the point system is
+	 * set and before each game, and recorded as a flight recorder event.
+	 *
+	 * If the CLASS_FILENAME file exists, its hand class probabilities are loaded
+	 * once, and the heuristic value of each encoding is the expected final game
+	 * score under the current point system (see getWeightedHeuristic). This is
+	 * only recomputed when the point system changes. Otherwise the British-trained
+	 * FILENAME file is loaded.
+	 */
+	protected void loadHeuristic() {
+		if (handClasses == null && system != null && new File(CLASS_FILENAME).exists()) {
+			HeuristicLoadEvent event = new HeuristicLoadEvent();
+			event.begin();
+			handClasses = loadHandClasses(CLASS_FILENAME);
+			event.end();
+			if (event.shouldCommit()) {
+				event.player = getName();
+				event.path = CLASS_FILENAME;
+				event.entries = handClasses == null ? -1 : handClasses.size();
+				event.commit();
+			}
+		}
+		if (handClasses != null && system != null) {
+			if (heuristicSystem != system) {
+				this.heuristic = getWeightedHeuristic(handClasses, system.getScoreTable());
+				heuristicSystem = system;
+				lineMemo.clear();
+			}
+			return;
+		}
+		HeuristicLoadEvent event = new HeuristicLoadEvent();
+		event.begin();
+		this.heuristic = loadEncoding(FILENAME);
+		lineMemo.clear();
+		event.end();
+		if (event.shouldCommit()) {
+			event.player = getName();
+			event.path = FILENAME;
+			event.entries = heuristic == null ? -1 : heuristic.size();
+			event.commit();
+		}
+	}
+
+	/*
+	 * Weight the hand class probabilities of each encoding by a point system's
+	 * score table. A game score is the sum of the scores of the hand classes of
+	 * its 10 lines, so the expected game score is 10 times the dot product of the
+	 * probabilities with the score table. Under the British point system this is
+	 * the same average game score that FILENAME holds.
+	 *
+	 * @param handClasses The final hand class probabilities of the lines of the
+	 * games in which each encoding was seen.
+	 *
+	 * @param scores The score of each hand class.
+	 *
+	 * @return The expected final game score of each encoding.
+	 */
+	public static HashMap<String, Double> getWeightedHeuristic(HashMap<String, double[]> handClasses, int[] scores) {
+		HashMap<String, Double> weighted = new HashMap<String, Double>(2 * handClasses.size());
+		for (HashMap.Entry<String, double[]> entry : handClasses.entrySet()) {
+			double[] probabilities = entry.getValue();
+			double value = 0.0;
+			for (int h = 0; h < probabilities.length; h++) {
+				value += probabilities[h] * scores[h];
+			}
+			weighted.put(entry.getKey(), 2 * PokerSquares.SIZE * value);
+		}
+		return weighted;
+	}
+
+	/*
+	 * Get the score of a leaf grid at the end of a simulated playout. By default
+	 * this is the total heuristic score of the grid.
+	 *
+	 * @param grid A 2D Card array that represents the game grid.
+	 *
+	 * @param numPlays The number of cards that have been played into the grid.
+	 *
+	 * @return The score for the grid.
+	 */
+	protected double getLeafScore(Card[][] grid, int numPlays) {
+		return getTotalHeuristicScore(grid, numPlays);
 	}
 
 	/*
@@ -210,10 +234,12 @@ public class JIsraelsonPlayer implements PokerSquaresPlayer {
 	 *
 	 * @param grid A 2D Card array that represents the game grid.
 	 *
+	 * @param numPlays The number of cards that have been played into the grid.
+	 *
 	 * @return The Total heuristic score for all of the hands in the grid.
 	 */
-	private double getTotalHeuristicScore(Card[][] grid) {
-		double[] handHeuristicScores = getHeuristicScores(grid);
+	private double getTotalHeuristicScore(Card[][] grid, int numPlays) {
+		double[] handHeuristicScores = getHeuristicScores(grid, numPlays);
 		double totalHeuristicScore = 0.0;
 		for (int i = 0; i < handHeuristicScores.length; i++) {
 			totalHeuristicScore += handHeuristicScores[i];
@@ -227,10 +253,12 @@ public class JIsraelsonPlayer implements PokerSquaresPlayer {
 	 *
 	 * @param grid A 2D Card array that represents the game grid.
 	 *
+	 * @param numPlays The number of cards that have been played into the grid.
+	 *
 	 * @return A double array representing the heuristic scores for each hand in the
 	 * grid.
 	 */
-	private double[] getHeuristicScores(Card[][] grid) {
+	private double[] getHeuristicScores(Card[][] grid, int numPlays) {
 		/*
 		 * This method is inspired by GetHandScores in PokerSquaresPointSystem. Most of
 		 * the code is the same except for the call to getHeuristicScore().
@@ -240,13 +268,13 @@ public class JIsraelsonPlayer implements PokerSquaresPlayer {
 			Card[] hand = new Card[SIZE];
 			for (int col = 0; col < SIZE; col++)
 				hand[col] = grid[row][col];
-			handHeuristicScores[row] = getHeuristicScore(hand);
+			handHeuristicScores[row] = getHeuristicScore(hand, numPlays);
 		}
 		for (int col = 0; col < SIZE; col++) {
 			Card[] hand = new Card[SIZE];
 			for (int row = 0; row < SIZE; row++)
 				hand[row] = grid[row][col];
-			handHeuristicScores[SIZE + col] = getHeuristicScore(hand);
+			handHeuristicScores[SIZE + col] = getHeuristicScore(hand, numPlays);
 		}
 		return handHeuristicScores;
 	}
@@ -257,14 +285,76 @@ public class JIsraelsonPlayer implements PokerSquaresPlayer {
 	 *
 	 * @param hand An array of cards representing a hand.
 	 *
+	 * @param numPlays The number of cards that have been played into the grid.
+	 *
 	 * @return The score for the hand.
 	 */
-	private double getHeuristicScore(Card[] hand) {
-		String encoding = getHandEncoding(hand, this.numPlays);
+	private double getHeuristicScore(Card[] hand, int numPlays) {
+		// Hands with the same line key have the same encoding, so their score can
+		// be taken from the line heuristic memo without building the encoding
+		long key = getLineKey(hand, numPlays);
+		int slot = lineMemo.find(key);
+		if (slot >= 0) {
+			return lineMemo.getValue(slot);
+		}
+		String encoding = getHandEncoding(hand, numPlays);
 		double score = heuristic.getOrDefault(encoding, 0.0);
+		lineMemo.put(key, score);
 		return score;
 	}
 
+	/*
+	 * Get a key for everything that the encoding of a hand depends on: the number
+	 * of plays, the count of each rank (3 bits per rank), and whether all of the
+	 * hand's cards share a suit. The key ignores the order of the cards and which
+	 * suit they share, so many hands share a key.
+	 *
+	 * @param hand An array of cards representing a hand.
+	 *
+	 * @param numPlays The current number of plays in the game.
+	 *
+	 * @return The line key for the hand.
+	 */
+	static long getLineKey(Card[] hand, int numPlays) {
+		long key = 0L;
+		int suit = -1;
+		boolean suited = true;
+		for (Card card : hand) {
+			if (card != null) {
+				key += 1L << (3 * card.getRank());
+				if (suit == -1) {
+					suit = card.getSuit();
+				} else if (card.getSuit() != suit) {
+					suited = false;
+				}
+			}
+		}
+		if (suited) {
+			key |= 1L << (3 * Card.NUM_RANKS);
+		}
+		return key | ((long) numPlays << (3 * Card.NUM_RANKS + 1));
+	}
+
+	/*
+	 * Set whether the line heuristic memo is kept from one game to the next under
+	 * the same heuristic, which is the default. Otherwise it is cleared before each
+	 * game.
+	 *
+	 * @param memoAcrossGames Whether to keep the line heuristic memo across games.
+	 */
+	public void setMemoAcrossGames(boolean memoAcrossGames) {
+		this.memoAcrossGames = memoAcrossGames;
+	}
+
+	/*
+	 * Get the line heuristic memo, for its hit rate and memory use.
+	 *
+	 * @return The line heuristic memo.
+	 */
+	public LineHeuristicMemo getLineMemo() {
+		return lineMemo;
+	}
+
 	/*
 	 * This method takes a hand and the current number of plays and returns a String
 	 * encoding for the hand
@@ -374,6 +464,48 @@ public class JIsraelsonPlayer implements PokerSquaresPlayer {
 		}
 	}
 
+	/*
+	 * Takes a HashMap<String, double[]> with encodings for hands and the final
+	 * hand class probabilities of the lines of their games, and writes it to a
+	 * file.
+	 *
+	 * @param handClasses The encodings and their hand class probabilities,
+	 * indexed by hand class identification number.
+	 *
+	 * @param path The path of the file in which the HashMap is saved.
+	 */
+	public static void saveHandClasses(HashMap<String, double[]> handClasses, String path) {
+		try {
+			ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(path));
+			oos.writeObject(handClasses);
+			oos.flush();
+			oos.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/*
+	 * Takes a path to a file and loads a HashMap<String, double[]> of hand class
+	 * probabilities from that file.
+	 *
+	 * @param path The path of the file from which the HashMap is loaded.
+	 */
+	@SuppressWarnings("unchecked")
+	public static HashMap<String, double[]> loadHandClasses(String path) {
+		HashMap<String, double[]> handClasses = null;
+		try {
+			ObjectInputStream ios = new ObjectInputStream(new FileInputStream(path));
+			handClasses = (HashMap<String, double[]>) ios.readObject();
+			ios.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		} catch (ClassNotFoundException e) {
+			e.printStackTrace();
+		}
+		return handClasses;
+	}
+
 	/*
 	 * Takes a path to a file and loads a HashMap<String, Double> from that file.
 	 *
@@ -0,0 +1,335 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * JIsraelsonTDEvaluator: A linear value function over per-line features that
+ * is learned with TD(lambda) from headless self-play.
+ *
+ * Each of the 10 lines of the grid is reduced to a single feature index made
+ * of the number of plays so far, the shape of the line's rank counts, and
+ * whether a flush and a straight are still possible in the line. The value of
+ * a grid is the sum of the weights of its 10 line features, so the weights are
+ * kept in one flat float array and evaluating a grid costs 10 array reads.
+ * This is an n-tuple network where every tuple is one row or column.
+ *
+ * Training plays games greedily (with epsilon exploration) against its own
+ * value function, choosing among afterstates, and applies TD(lambda) updates
+ * with the final game score as the only reward.
+ *
+ *
+ * @author James Israelson
+ */
+public class JIsraelsonTDEvaluator {
+	// The filename for the weights
+	public static final String FILENAME = "JIsraelsonTDWeights.bin";
+
+	private static final int SIZE = PokerSquares.SIZE;
+	private static final int NUM_POS = SIZE * SIZE;
+	// The rank count shape is indexed by ones + 6 * (pairs + 3 * (trips + 2 * quads))
+	private static final int NUM_SHAPES = 6 * 3 * 2 * 2;
+	// Number of features per number of plays: shapes * flush possible * straight possible
+	private static final int FEATURES_PER_PLAY = NUM_SHAPES * 2 * 2;
+	public static final int NUM_WEIGHTS = (NUM_POS + 1) * FEATURES_PER_PLAY;
+	// Rank bit mask of the cards that can make an ace high straight (A, T, J, Q, K)
+	private static final int ACE_HIGH_MASK = 1 | (1 << 9) | (1 << 10) | (1 << 11) | (1 << 12);
+
+	// The weights for every feature
+	private float[] weights;
+	// Scratch counts used while computing a line's feature
+	private int[] rankCounts = new int[Card.NUM_RANKS];
+
+	/*
+	 * Creates an evaluator with all weights set to zero.
+	 */
+	public JIsraelsonTDEvaluator() {
+		this(new float[NUM_WEIGHTS]);
+	}
+
+	/*
+	 * Creates an evaluator with the given weights.
+	 *
+	 * @param weights The weights for every feature.
+	 */
+	public JIsraelsonTDEvaluator(float[] weights) {
+		this.weights = weights;
+	}
+
+	/*
+	 * Get the weights of the evaluator.
+	 *
+	 * @return The weights for every feature.
+	 */
+	public float[] getWeights() {
+		return weights;
+	}
+
+	/*
+	 * Evaluates a grid as the sum of the weights of its line features.
+	 *
+	 * @param grid A 2D Card array that represents the game grid.
+	 *
+	 * @param numPlays The number of cards that have been played into the grid.
+	 *
+	 * @return The value of the grid.
+	 */
+	public double evaluate(Card[][] grid, int numPlays) {
+		int base = numPlays * FEATURES_PER_PLAY;
+		double value = 0.0;
+		for (int i = 0; i < 2 * SIZE; i++) {
+			value += weights[base + getLineFeature(grid, i)];
+		}
+		return value;
+	}
+
+	/*
+	 * Computes the feature of a line, not including the number of plays.
+	 *
+	 * @param grid A 2D Card array that represents the game grid.
+	 *
+	 * @param line The line index: rows 0 through 4 followed by columns 0 through
+	 * 4.
+	 *
+	 * @return The feature index of the line.
+	 */
+	private int getLineFeature(Card[][] grid, int line) {
+		int suit = -1;
+		boolean flushPossible = true;
+		int rankMask = 0;
+		int ones = 0, pairs = 0, trips = 0, quads = 0;
+		for (int i = 0; i < SIZE; i++) {
+			Card card = line < SIZE ? grid[line][i] : grid[i][line - SIZE];
+			if (card == null) {
+				continue;
+			}
+			if (suit == -1) {
+				suit = card.getSuit();
+			} else if (suit != card.getSuit()) {
+				flushPossible = false;
+			}
+			int rank = card.getRank();
+			rankMask |= 1 << rank;
+			// Move the rank from its old count to its new count
+			switch (++rankCounts[rank]) {
+			case 1:
+				ones++;
+				break;
+			case 2:
+				ones--;
+				pairs++;
+				break;
+			case 3:
+				pairs--;
+				trips++;
+				break;
+			default:
+				trips--;
+				quads++;
+			}
+		}
+		for (int i = 0; i < SIZE; i++) {
+			Card card = line < SIZE ? grid[line][i] : grid[i][line - SIZE];
+			if (card != null) {
+				rankCounts[card.getRank()] = 0;
+			}
+		}
+
+		// A straight is possible if there are no pairs and the ranks fit in a window
+		// of 5, with the ace either low or high.
+		boolean straightPossible = false;
+		if (ones == Integer.bitCount(rankMask)) {
+			if (rankMask == 0) {
+				straightPossible = true;
+			} else {
+				int low = Integer.numberOfTrailingZeros(rankMask);
+				int high = 31 - Integer.numberOfLeadingZeros(rankMask);
+				straightPossible = high - low < SIZE || (rankMask & ~ACE_HIGH_MASK) == 0;
+			}
+		}
+
+		int shape = ones + 6 * (pairs + 3 * (trips + 2 * quads));
+		return (shape * 2 + (flushPossible ? 1 : 0)) * 2 + (straightPossible ? 1 : 0);
+	}
+
+	/*
+	 * Trains the weights with TD(lambda) over a number of self-play games.
+	 *
+	 * @param system The point system that gives the final score of each game.
+	 *
+	 * @param numGames The number of games to play.
+	 *
+	 * @param alpha The learning rate.
+	 *
+	 * @param lambda The trace decay.
+	 *
+	 * @param epsilon The probability of making a random exploratory play.
+	 *
+	 * @param random The random number generator for the deals and exploration.
+	 *
+	 * @return The average final score of the training games.
+	 */
+	public double train(PokerSquaresPointSystem system, int numGames, double alpha, double lambda, double epsilon,
+			Random random) {
+		Card[][] grid = new Card[SIZE][SIZE];
+		int[] deck = new int[Card.NUM_CARDS];
+		for (int i = 0; i < deck.length; i++) {
+			deck[i] = i;
+		}
+		int[] empty = new int[NUM_POS];
+		// The features of the previous afterstate
+		int[] previous = new int[2 * SIZE];
+		// The eligibility traces and the features that currently have a trace
+		float[] traces = new float[NUM_WEIGHTS];
+		int[] traced = new int[NUM_WEIGHTS];
+		boolean[] isTraced = new boolean[NUM_WEIGHTS];
+		double scoreTotal = 0.0;
+
+		for (int game = 0; game < numGames; game++) {
+			for (int row = 0; row < SIZE; row++)
+				for (int col = 0; col < SIZE; col++)
+					grid[row][col] = null;
+			for (int i = 0; i < NUM_POS; i++) {
+				empty[i] = i;
+			}
+			int numTraced = 0;
+			double previousValue = 0.0;
+
+			for (int numPlays = 0; numPlays < NUM_POS; numPlays++) {
+				// Deal the next card with a partial shuffle
+				int c = numPlays + random.nextInt(Card.NUM_CARDS - numPlays);
+				int cardId = deck[c];
+				deck[c] = deck[numPlays];
+				deck[numPlays] = cardId;
+				Card card = Card.getCard(cardId);
+
+				// Choose the empty position with the best afterstate value
+				int remaining = NUM_POS - numPlays;
+				int choice;
+				if (random.nextDouble() < epsilon) {
+					choice = random.nextInt(remaining);
+				} else {
+					choice = 0;
+					double bestValue = Double.NEGATIVE_INFINITY;
+					for (int i = 0; i < remaining; i++) {
+						int play = empty[i];
+						grid[play / SIZE][play % SIZE] = card;
+						double value = evaluate(grid, numPlays + 1);
+						grid[play / SIZE][play % SIZE] = null;
+						if (value > bestValue) {
+							bestValue = value;
+							choice = i;
+						}
+					}
+				}
+				int play = empty[choice];
+				empty[choice] = empty[remaining - 1];
+				grid[play / SIZE][play % SIZE] = card;
+
+				// Update the weights toward the new afterstate's value, or toward the
+				// final score once the grid is full.
+				double value = numPlays + 1 == NUM_POS ? system.getScore(grid) : evaluate(grid, numPlays + 1);
+				if (numPlays > 0) {
+					for (int i = 0; i < numTraced; i++) {
+						traces[traced[i]] *= lambda;
+					}
+					for (int feature : previous) {
+						if (!isTraced[feature]) {
+							isTraced[feature] = true;
+							traced[numTraced++] = feature;
+						}
+						traces[feature] += 1.0f;
+					}
+					double delta = alpha * (value - previousValue);
+					for (int i = 0; i < numTraced; i++) {
+						weights[traced[i]] += delta * traces[traced[i]];
+					}
+				}
+				int base = (numPlays + 1) * FEATURES_PER_PLAY;
+				for (int i = 0; i < 2 * SIZE; i++) {
+					previous[i] = base + getLineFeature(grid, i);
+				}
+				previousValue = numPlays + 1 == NUM_POS ? value : evaluate(grid, numPlays + 1);
+			}
+			scoreTotal += previousValue;
+
+			// Clear the traces for the next game
+			for (int i = 0; i < numTraced; i++) {
+				traces[traced[i]] = 0.0f;
+				isTraced[traced[i]] = false;
+			}
+		}
+		return scoreTotal / numGames;
+	}
+
+	/*
+	 * Writes weights to a file.
+	 *
+	 * @param weights The weights to save.
+	 *
+	 * @param path The path of the file in which the weights are saved.
+	 */
+	public static void saveWeights(float[] weights, String path) {
+		try {
+			DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)));
+			dos.writeInt(weights.length);
+			for (float weight : weights) {
+				dos.writeFloat(weight);
+			}
+			dos.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/*
+	 * Loads weights from a file.
+	 *
+	 * @param path The path of the file from which the weights are loaded.
+	 *
+	 * @return The weights, or null if they could not be loaded.
+	 */
+	public static float[] loadWeights(String path) {
+		float[] weights = null;
+		try {
+			DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(path)));
+			weights = new float[dis.readInt()];
+			for (int i = 0; i < weights.length; i++) {
+				weights[i] = dis.readFloat();
+			}
+			dis.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return weights;
+	}
+
+	/*
+	 * Trains the weights with the British point system and saves them to the file
+	 * specified by FILENAME. Training continues from the saved weights if there
+	 * are any.
+	 *
+	 * @param args The first argument is the number of training games (default
+	 * 1000000).
+	 */
+	public static void main(String[] args) {
+		int numGames = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		float[] weights = new java.io.File(FILENAME).exists() ? loadWeights(FILENAME) : null;
+		JIsraelsonTDEvaluator evaluator = weights != null && weights.length == NUM_WEIGHTS
+				? new JIsraelsonTDEvaluator(weights)
+				: new JIsraelsonTDEvaluator();
+		PokerSquaresPointSystem system = PokerSquaresPointSystem.getBritishPointSystem();
+		Random random = new Random();
+		int blockSize = 10000;
+		for (int played = 0; played < numGames; played += blockSize) {
+			int games = Math.min(blockSize, numGames - played);
+			double mean = evaluator.train(system, games, 0.01, 0.5, 0.05, random);
+			System.out.printf("games: %d    mean training score: %.3f%n", played + games, mean);
+		}
+		saveWeights(evaluator.getWeights(), FILENAME);
+	}
+}
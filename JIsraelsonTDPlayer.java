@@ -0,0 +1,98 @@
+import java.util.ArrayList;
+
+/**
+ * JIsraelsonTDPlayer: The JIsraelsonPlayer Monte Carlo search, but with the
+ * leaf positions of each simulated playout scored by the TD-learned
+ * JIsraelsonTDEvaluator instead of the Monte Carlo encoding heuristic.
+ *
+ *
+ * @author James Israelson
+ */
+public class JIsraelsonTDPlayer extends JIsraelsonPlayer {
+	// The evaluator for leaf positions, loaded once from
+	// JIsraelsonTDEvaluator.FILENAME
+	private JIsraelsonTDEvaluator evaluator;
+
+	public JIsraelsonTDPlayer() {
+		this(3);
+	}
+
+	public JIsraelsonTDPlayer(int depthLimit) {
+		super(depthLimit);
+		// The TD evaluator scores whole grids rather than single lines
+		search.setLeafEvaluator(new LeafEvaluator() {
+			@Override
+			public void setPointSystem(PokerSquaresPointSystem system) {
+				// The weights do not depend on the point system
+			}
+
+			@Override
+			public double evaluate(Card[][] grid, int numPlays) {
+				return getLeafScore(grid, numPlays);
+			}
+		});
+	}
+
+	/*
+	 * Load the TD weights if they have not been loaded yet.
+	 */
+	@Override
+	protected void loadHeuristic() {
+		if (evaluator == null) {
+			HeuristicLoadEvent event = new HeuristicLoadEvent();
+			event.begin();
+			float[] weights = JIsraelsonTDEvaluator.loadWeights(JIsraelsonTDEvaluator.FILENAME);
+			evaluator = weights == null ? new JIsraelsonTDEvaluator() : new JIsraelsonTDEvaluator(weights);
+			event.end();
+			if (event.shouldCommit()) {
+				event.player = getName();
+				event.path = JIsraelsonTDEvaluator.FILENAME;
+				event.entries = weights == null ? -1 : weights.length;
+				event.commit();
+			}
+		}
+	}
+
+	/*
+	 * Score a leaf grid with the TD evaluator.
+	 *
+	 * @param grid A 2D Card array that represents the game grid.
+	 *
+	 * @param numPlays The number of cards that have been played into the grid.
+	 *
+	 * @return The value of the grid.
+	 */
+	@Override
+	protected double getLeafScore(Card[][] grid, int numPlays) {
+		return evaluator.evaluate(grid, numPlays);
+	}
+
+	/*
+	 * Get the name for the JIsraelsonTDPlayer
+	 *
+	 * @return The name for the player.
+	 */
+	@Override
+	public String getName() {
+		return "JIsraelsonTDPlayer";
+	}
+
+	/*
+	 * Compare the JIsraelsonTDPlayer against the JIsraelsonPlayer with the British
+	 * point system. Both players search to depth 3 and get the same time per game.
+	 *
+	 * @param args The first argument is the number of games per player (default
+	 * 10).
+	 */
+	public static void main(String[] args) {
+		int numGames = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		ArrayList<PokerSquaresPlayer> players = new ArrayList<PokerSquaresPlayer>();
+		players.add(new JIsraelsonTDPlayer(3));
+		players.add(new JIsraelsonPlayer(3));
+
+		ArrayList<PokerSquaresPointSystem> systems = new ArrayList<PokerSquaresPointSystem>();
+		systems.add(PokerSquaresPointSystem.getBritishPointSystem());
+
+		PokerSquares.playTournament(players, systems, numGames, 0L);
+	}
+}
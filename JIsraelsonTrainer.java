@@ -1,3 +1,7 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.Collections;
 import java.util.Stack;
 import java.util.HashMap;
@@ -6,7 +10,10 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * JIsraelsonTrainer: A PokerSquaresPlayer that simulates random games and
- * stores every hand encountered in the game into a Vector<String>.
+ * stores every hand encountered in the game into a Vector<String>. Each
+ * encoding is saved with the average game score (the British heuristic) and
+ * with the probabilities of the final hand classes of the lines of those games,
+ * from which JIsraelsonPlayer weights a heuristic for any point system.
  *
  * Some of the code in this file is adopted from the RandomPlayer that was
  * supplied as an example.
@@ -16,6 +23,19 @@ import java.util.concurrent.TimeUnit;
  * @author Todd W. Neller [getPlay(), init()]
  */
 public class JIsraelsonTrainer implements PokerSquaresPlayer {
+  // The file to which the convergence metrics are logged
+  public static final String LOG_FILENAME = "JIsraelsonTrainer.csv";
+  // How often the convergence metrics are computed and logged
+  public static final long REPORT_MILLIS = 10000L;
+  // Default standard error under which an encoding counts as converged
+  public static final double DEFAULT_TARGET_ERROR = 0.25;
+  // Default fraction of visits that must be on converged encodings
+  public static final double DEFAULT_TARGET_COVERAGE = 0.99;
+  // Default number of new encodings per 1000 games under which discovery is done
+  public static final double DEFAULT_TARGET_NEW_RATE = 0.1;
+  // The number of reports in a row that must meet the targets to stop early
+  public static final int STABLE_REPORTS = 3;
+
   private Vector<String> handsInGame = new Vector<String>();
   private final int SIZE = 5;
   private Card[][] grid = new Card[SIZE][SIZE];
@@ -109,6 +129,27 @@ public class JIsraelsonTrainer implements PokerSquaresPlayer {
     this.handsInGame.add(encoding);
   }
 
+  /*
+   * Get the final hand class of each line of the finished game, in the order in
+   * which storeHands stores the lines: the rows, then the columns.
+   *
+   * @return An int array of hand class identification numbers.
+   */
+  public int[] getFinalHandClasses() {
+    int[] handClasses = new int[2 * SIZE];
+    for (int row = 0; row < SIZE; row++) {
+      handClasses[row] = PokerHand.getPokerHand(grid[row]).id;
+    }
+    for (int col = 0; col < SIZE; col++) {
+      Card[] hand = new Card[SIZE];
+      for (int row = 0; row < SIZE; row++) {
+        hand[row] = grid[row][col];
+      }
+      handClasses[SIZE + col] = PokerHand.getPokerHand(hand).id;
+    }
+    return handClasses;
+  }
+
   /*
    * Get the handsInGame
    *
@@ -119,11 +160,23 @@ public class JIsraelsonTrainer implements PokerSquaresPlayer {
   }
 
   /*
-   * Runs simulations of games repeatedly until a timer is up. Every hand in the
-   * game is encoded into a String, and saved with its average score at the end of
-   * the game into a file specified by JIsraelsonPlayer.FILENAME.
+   * Runs simulations of games repeatedly until the heuristic has converged or a
+   * timer is up. Every hand in the game is encoded into a String, and saved with
+   * its average score at the end of the game into a file specified by
+   * JIsraelsonPlayer.FILENAME.
+   *
+   * Convergence is measured every REPORT_MILLIS milliseconds: the standard error
+   * of each encoding's mean score, the fraction of all visits that fall on
+   * encodings whose standard error is under the target error, and the rate at
+   * which new encodings are still being discovered. Training stops early once
+   * the coverage is at least the target coverage and the new encoding rate is at
+   * most the target rate for STABLE_REPORTS reports in a row. Each report is
+   * appended as a line to the CSV file specified by LOG_FILENAME.
    *
-   * @param args The first argument is used as the minutes to run the simulataions
+   * @param args The first argument is the maximum number of minutes to run the
+   * simulations. The optional second, third and fourth arguments are the target
+   * standard error, the target coverage and the target number of new encodings
+   * per 1000 games.
    */
   public static void main(String[] args) {
     int maxScore = 0;
@@ -133,6 +186,10 @@ public class JIsraelsonTrainer implements PokerSquaresPlayer {
     // encountered.
     HashMap<String, Heuristic> handEncodings = new HashMap<String, Heuristic>();
 
+    // The HashMap in which to count the final hand classes of the lines on which
+    // each encoding was seen.
+    HashMap<String, long[]> classCounts = new HashMap<String, long[]>();
+
     // Create the trainer and set up the game.
     JIsraelsonTrainer train = new JIsraelsonTrainer();
     PokerSquaresPointSystem system = PokerSquaresPointSystem.getBritishPointSystem();
@@ -149,14 +206,30 @@ public class JIsraelsonTrainer implements PokerSquaresPlayer {
     double seconds = minutes * 60;
     long millis = (long) seconds * 1000;
 
-    // Run until millis == 0
+    // Get the stopping rule targets
+    double targetError = args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_TARGET_ERROR;
+    double targetCoverage = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TARGET_COVERAGE;
+    double targetNewRate = args.length > 3 ? Double.parseDouble(args[3]) : DEFAULT_TARGET_NEW_RATE;
+
+    PrintWriter log = openLog(LOG_FILENAME);
+    long trainingStart = System.currentTimeMillis();
+    long nextReport = trainingStart + REPORT_MILLIS;
+    int games = 0;
+    int gamesAtLastReport = 0;
+    int encodingsAtLastReport = 0;
+    int stableReports = 0;
+    double coverage = 0.0;
+
+    // Run until millis == 0 or the heuristic has converged
     while (millis > 0) {
       // Get the current time
       long startTime = System.currentTimeMillis();
-      System.out.printf("time left: %.1fs    encodings: %d             \r", (millis / 1000.0), handEncodings.size());
+      System.out.printf("time left: %.1fs    encodings: %d    coverage: %.4f             \r", (millis / 1000.0),
+          handEncodings.size(), coverage);
 
       // Play a game
       int score = ps.play();
+      games++;
       if (score > maxScore) {
         maxScore = score;
       }
@@ -174,14 +247,58 @@ public class JIsraelsonTrainer implements PokerSquaresPlayer {
         }
       }
 
+      // Count the final hand classes of the game's lines for each hand. The game
+      // score is the sum of the scores of these classes.
+      int[] finalClasses = train.getFinalHandClasses();
+      for (String handEncoding : handsInGame) {
+        long[] counts = classCounts.get(handEncoding);
+        if (counts == null) {
+          counts = new long[PokerHand.NUM_HANDS];
+          classCounts.put(handEncoding, counts);
+        }
+        for (int handClass : finalClasses) {
+          counts[handClass]++;
+        }
+      }
+
       // Get the current time
       long endTime = System.currentTimeMillis();
 
+      // Report the convergence metrics and check the stopping rule
+      if (endTime >= nextReport) {
+        int newGames = games - gamesAtLastReport;
+        int newEncodings = handEncodings.size() - encodingsAtLastReport;
+        double newRate = 1000.0 * newEncodings / newGames;
+        double[] errors = getErrorMetrics(handEncodings, targetError);
+        coverage = errors[1];
+        if (log != null) {
+          log.printf("%.1f,%d,%d,%.4f,%.6f,%.6f%n", (endTime - trainingStart) / 1000.0, games,
+              handEncodings.size(), newRate, errors[0], coverage);
+          log.flush();
+        }
+        if (coverage >= targetCoverage && newRate <= targetNewRate) {
+          stableReports++;
+        } else {
+          stableReports = 0;
+        }
+        gamesAtLastReport = games;
+        encodingsAtLastReport = handEncodings.size();
+        nextReport = endTime + REPORT_MILLIS;
+        if (stableReports >= STABLE_REPORTS) {
+          System.out.println();
+          System.out.println("converged after " + games + " games");
+          break;
+        }
+      }
+
       // Decrement millis by the amount of time it took to run the iteration of the
       // while loop
       millis -= (endTime - startTime);
     }
     System.out.println();
+    if (log != null) {
+      log.close();
+    }
 
     // Create a HashMap to hold the final encodings and their scores
     HashMap<String, Double> encodingScores = new HashMap<String, Double>();
@@ -198,9 +315,82 @@ public class JIsraelsonTrainer implements PokerSquaresPlayer {
     // Save the encoding to a file specified by JIsraelsonPlayer.FILENAME
     JIsraelsonPlayer.saveEncoding(encodingScores, JIsraelsonPlayer.FILENAME);
 
+    // Convert the hand class counts to probabilities and save them to a file
+    // specified by JIsraelsonPlayer.CLASS_FILENAME
+    HashMap<String, double[]> handClasses = new HashMap<String, double[]>();
+    for (HashMap.Entry<String, long[]> entry : classCounts.entrySet()) {
+      long[] counts = entry.getValue();
+      long total = 0;
+      for (long count : counts) {
+        total += count;
+      }
+      double[] probabilities = new double[counts.length];
+      for (int h = 0; h < counts.length; h++) {
+        probabilities[h] = (double) counts[h] / total;
+      }
+      handClasses.put(entry.getKey(), probabilities);
+    }
+    JIsraelsonPlayer.saveHandClasses(handClasses, JIsraelsonPlayer.CLASS_FILENAME);
+
     // Print the stats for the simulations
+    double[] errors = getErrorMetrics(handEncodings, targetError);
+    System.out.println("games: " + games);
     System.out.println("encodings: " + i);
     System.out.println("max score: " + maxScore);
+    System.out.printf("mean standard error: %.6f%n", errors[0]);
+    System.out.printf("coverage: %.6f%n", errors[1]);
+  }
+
+  /*
+   * Computes the visit-weighted mean standard error of the encodings, and the
+   * fraction of all visits that fall on encodings whose standard error is below
+   * the target error. Encodings seen only once have no standard error and are
+   * never counted as covered.
+   *
+   * @param handEncodings The encodings and their Heuristics.
+   *
+   * @param targetError The standard error under which an encoding is covered.
+   *
+   * @return A double array with the mean standard error and the coverage.
+   */
+  private static double[] getErrorMetrics(HashMap<String, Heuristic> handEncodings, double targetError) {
+    long visits = 0;
+    long coveredVisits = 0;
+    long measuredVisits = 0;
+    double errorTotal = 0.0;
+    for (Heuristic handHeuristic : handEncodings.values()) {
+      int count = handHeuristic.getCount();
+      double error = handHeuristic.getStandardError();
+      visits += count;
+      if (!Double.isInfinite(error)) {
+        measuredVisits += count;
+        errorTotal += error * count;
+        if (error < targetError) {
+          coveredVisits += count;
+        }
+      }
+    }
+    double meanError = measuredVisits == 0 ? Double.POSITIVE_INFINITY : errorTotal / measuredVisits;
+    double coverage = visits == 0 ? 0.0 : (double) coveredVisits / visits;
+    return new double[] { meanError, coverage };
+  }
+
+  /*
+   * Opens the convergence log and writes its header.
+   *
+   * @param path The path of the CSV file to write to.
+   *
+   * @return A PrintWriter for the log, or null if the file could not be opened.
+   */
+  private static PrintWriter openLog(String path) {
+    try {
+      PrintWriter log = new PrintWriter(new BufferedWriter(new FileWriter(path)));
+      log.println("seconds,games,encodings,new_encodings_per_1000_games,mean_standard_error,coverage");
+      return log;
+    } catch (IOException e) {
+      e.printStackTrace();
+      return null;
+    }
   }
 }
 
@@ -214,6 +404,8 @@ class Heuristic {
   private int count;
   // The average score of the hand so far.
   private double score;
+  // The sum of squared differences from the average score (Welford's method).
+  private double squaredDeviations;
 
   /*
    * Creates a Heuristic.
@@ -221,6 +413,7 @@ class Heuristic {
    * @param score The first score of the Heuristic.
    */
   public Heuristic(int score) {
+    this.count = 1;
     this.score = score;
   }
 
@@ -231,10 +424,10 @@ class Heuristic {
    * @param newScore The score to be added to the Heuristic
    */
   public void addScore(int newScore) {
-    double totalScore = this.count * this.score;
-    totalScore += newScore;
     this.count++;
-    this.score = totalScore / this.count;
+    double delta = newScore - this.score;
+    this.score += delta / this.count;
+    this.squaredDeviations += delta * (newScore - this.score);
   }
 
   /*
@@ -246,13 +439,36 @@ class Heuristic {
     return this.score;
   }
 
+  /*
+   * Returns the amount of times the hand has been encountered.
+   *
+   * @return The count for the Heuristic
+   */
+  public int getCount() {
+    return this.count;
+  }
+
+  /*
+   * Returns the standard error of the score. A hand encountered only once has an
+   * infinite standard error.
+   *
+   * @return The standard error of the score for the Heuristic
+   */
+  public double getStandardError() {
+    if (this.count < 2) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double variance = this.squaredDeviations / (this.count - 1);
+    return Math.sqrt(variance / this.count);
+  }
+
   /*
    * Returns the count and score for the Heuristic.
    *
    * @return The count and score for the Heuristic
    */
   public String toString() {
-    String output = "count: " + count + "\nscore: " + score + "\n";
+    String output = "count: " + count + "\nscore: " + score + "\nstandard error: " + getStandardError() + "\n";
     return output;
   }
 }
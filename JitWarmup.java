@@ -0,0 +1,139 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JitWarmup - exercises a player's hot paths on throwaway games before timed play, so that the first timed games do
+ * not run interpreted or lightly compiled simulation and hand-evaluation code.  Each warm-up round plays one throwaway
+ * game with a short time budget through init and getPlay, and measures the player's throughput in simulations per
+ * second (or moves per second for players that are not SimulationCounters).  Warm-up ends when the rate of the last
+ * few rounds has stabilized or the time allowed runs out.
+ *
+ * Compiled code is shared by all instances of a class, so warmUpOnce warms each player class at most once per JVM.
+ * The PokerSquares harness calls it (see PokerSquares.warmUp) for Monte Carlo players before the first game of a
+ * sequence or tournament, never while timed games are being played.
+ */
+public class JitWarmup {
+
+	public static final long DEFAULT_MILLIS = 3000L; // default maximum warm-up time
+	private static final long ROUND_GAME_MILLIS = 250L; // game time budget of each throwaway game
+	private static final int MIN_ROUNDS = 4; // minimum rounds before the rate may be declared stable
+	private static final int STABLE_ROUNDS = 3; // number of recent rounds whose rates must agree
+	private static final double STABLE_TOLERANCE = 0.1; // maximum relative spread of the recent rates
+	private static final Set<Class<?>> warmedClasses = ConcurrentHashMap.newKeySet(); // classes already warmed
+	private static volatile boolean enabled = true; // whether warmUpOnce warms players
+	private static volatile boolean verbose = false; // whether warmUpOnce reports the rate of each round
+
+	/**
+	 * Set whether warmUpOnce warms players.  Warm-up is enabled by default.
+	 * @param enabled whether warm-up is enabled
+	 */
+	public static void setEnabled(boolean enabled) {
+		JitWarmup.enabled = enabled;
+	}
+
+	/**
+	 * Return whether warmUpOnce warms players.
+	 * @return whether warm-up is enabled
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Set whether warmUpOnce reports the rate of each round.
+	 * @param verbose whether to report warm-up rates
+	 */
+	public static void setVerbose(boolean verbose) {
+		JitWarmup.verbose = verbose;
+	}
+
+	/**
+	 * Warm up a player whose point system has been set, unless warm-up is disabled or another instance of its class
+	 * has already been warmed in this JVM.  The player must be initialized again before a real game.
+	 * @param player player to warm up
+	 * @param maxMillis maximum warm-up time in milliseconds
+	 * @return whether the player was warmed up
+	 */
+	public static boolean warmUpOnce(PokerSquaresPlayer player, long maxMillis) {
+		if (!enabled || maxMillis <= 0 || !warmedClasses.add(player.getClass()))
+			return false;
+		warmUp(player, maxMillis, verbose);
+		return true;
+	}
+
+	/**
+	 * Warm up a player whose point system has been set by playing throwaway games until its throughput stabilizes or
+	 * the time allowed runs out.  The player must be initialized again before a real game.
+	 * @param player player to warm up
+	 * @param maxMillis maximum warm-up time in milliseconds
+	 * @param report whether to print the rate of each round
+	 * @return rate of each round, in simulations (or moves) per second
+	 */
+	public static ArrayList<Double> warmUp(PokerSquaresPlayer player, long maxMillis, boolean report) {
+		ArrayList<Double> rates = new ArrayList<Double>();
+		ArrayList<Card> deck = new ArrayList<Card>();
+		Collections.addAll(deck, Card.getAllCards());
+		Random random = new Random(0L);
+		String unit = player instanceof SimulationCounter ? "simulations/sec" : "moves/sec";
+		long endNanos = System.nanoTime() + maxMillis * 1000000L;
+		while (endNanos - System.nanoTime() >= ROUND_GAME_MILLIS * 1000000L) { // only full rounds are measured
+			Collections.shuffle(deck, random);
+			long startCount = player instanceof SimulationCounter ? ((SimulationCounter) player).getSimulations() : 0;
+			long startNanos = System.nanoTime();
+			player.init();
+			int moves = 0;
+			for (; moves < PokerSquares.SIZE * PokerSquares.SIZE; moves++) {
+				long millisRemaining = ROUND_GAME_MILLIS - (System.nanoTime() - startNanos) / 1000000L;
+				if (millisRemaining <= 0)
+					break;
+				player.getPlay(deck.get(moves), millisRemaining);
+			}
+			double seconds = (System.nanoTime() - startNanos) / 1e9;
+			long count = player instanceof SimulationCounter
+					? ((SimulationCounter) player).getSimulations() - startCount : moves;
+			rates.add(count / seconds);
+			if (report)
+				System.out.printf("%s warm-up round %d: %.0f %s%n", player.getName(), rates.size(),
+						rates.get(rates.size() - 1), unit);
+			if (isStable(rates))
+				break;
+		}
+		return rates;
+	}
+
+	/**
+	 * Return whether the most recent rates agree to within the stable tolerance.
+	 * @param rates rate of each round
+	 * @return whether the rate has stabilized
+	 */
+	public static boolean isStable(ArrayList<Double> rates) {
+		if (rates.size() < Math.max(MIN_ROUNDS, STABLE_ROUNDS))
+			return false;
+		double min = Double.POSITIVE_INFINITY, max = 0;
+		for (int i = rates.size() - STABLE_ROUNDS; i < rates.size(); i++) {
+			min = Math.min(min, rates.get(i));
+			max = Math.max(max, rates.get(i));
+		}
+		return max > 0 && (max - min) / max <= STABLE_TOLERANCE;
+	}
+
+	/**
+	 * Report the warm-up ramp of fresh Monte Carlo players in this JVM.
+	 * @param args optional maximum warm-up milliseconds per player (default 10000)
+	 */
+	public static void main(String[] args) {
+		long maxMillis = args.length > 0 ? Long.parseLong(args[0]) : 10000L;
+		setEnabled(false); // report the ramp from cold code, even if the harness has warmed a player class
+		PokerSquaresPointSystem system = PokerSquaresPointSystem.getBritishPointSystem();
+		PokerSquaresPlayer[] players = {new RandomMCPlayer(2), new JIsraelsonPlayer(3)};
+		for (PokerSquaresPlayer player : players) {
+			player.setPointSystem(system, PokerSquares.POINT_SYSTEM_MILLIS);
+			ArrayList<Double> rates = warmUp(player, maxMillis, true);
+			System.out.printf("%s: %s after %d rounds%n", player.getName(),
+					isStable(rates) ? "stable" : "not yet stable", rates.size());
+		}
+	}
+}
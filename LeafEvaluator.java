@@ -0,0 +1,20 @@
+/**
+ * LeafEvaluator - scores the grid at the end of each Monte Carlo simulation of a MonteCarloSearch.
+ * An evaluator is told the point system before use.  It is called once per simulation, so it should avoid allocation.
+ */
+public interface LeafEvaluator {
+
+	/**
+	 * setPointSystem - provides the evaluator with the point system used by subsequent simulations.
+	 * @param system - current point system
+	 */
+	void setPointSystem(PokerSquaresPointSystem system);
+
+	/**
+	 * evaluate - scores a simulated grid.
+	 * @param grid - simulated grid with Card objects or null (for empty positions).  It must be unchanged on return.
+	 * @param numPlays - number of cards in the grid
+	 * @return score of the grid; higher is better
+	 */
+	double evaluate(Card[][] grid, int numPlays);
+}
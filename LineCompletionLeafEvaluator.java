@@ -0,0 +1,32 @@
+/**
+ * LineCompletionLeafEvaluator - scores simulated grids by the sum of the expected final scores of their lines under
+ * random completion (see LineCompletionTable), taken from the PointSystemAnalyzer of the point system.
+ */
+public class LineCompletionLeafEvaluator implements LineLeafEvaluator {
+
+	private LineCompletionTable lineTable; // expected final line scores for the current point system
+
+	/* (non-Javadoc)
+	 * @see LeafEvaluator#setPointSystem(PokerSquaresPointSystem)
+	 */
+	@Override
+	public void setPointSystem(PokerSquaresPointSystem system) {
+		lineTable = PointSystemAnalyzer.getAnalyzer(system).getLineTable();
+	}
+
+	/* (non-Javadoc)
+	 * @see LeafEvaluator#evaluate(Card[][], int)
+	 */
+	@Override
+	public double evaluate(Card[][] grid, int numPlays) {
+		return lineTable.getExpectedScore(grid);
+	}
+
+	/* (non-Javadoc)
+	 * @see LineLeafEvaluator#evaluateLine(Card[], int)
+	 */
+	@Override
+	public double evaluateLine(Card[] line, int numPlays) {
+		return lineTable.getExpectedScore(line);
+	}
+}
@@ -0,0 +1,415 @@
+import java.util.Random;
+
+/**
+ * LineCompletionTable - Exact probabilities that a partially filled Poker Squares line (row or column) ends as each
+ * Poker hand class when its empty cells are filled with cards drawn uniformly at random from the unseen cards.
+ *
+ * When the unseen cards are all cards not in the line, these probabilities depend only on the multiset of ranks in the
+ * line and on whether all of the line's cards share a suit (the only way a flush or straight flush remains possible).
+ * The number of empty cells is implied by the size of the rank multiset.  All such lines are indexed densely, so the
+ * probabilities for all 17136 keys are computed once when the class is loaded (about 200-300 ms on a cold JVM, within
+ * the point system setup time), and an instance for a given point system reduces them to one expected line score per
+ * key.  Looking up a line is then a constant-time key computation and a single array read, which makes the table
+ * usable as a rollout-free leaf evaluator.
+ *
+ * The key holds no summary of the remaining deck, so the table's probabilities assume that every card not in the line
+ * is still unseen.  Late in a game, when many of the cards a line needs are already in other lines, they overestimate
+ * its chances.  For a specific remaining deck, getHandProbabilities(Card[], Card[], int) computes the probabilities
+ * exactly by enumerating rank multisets of the empty cells, at a cost that grows with the number of empty cells; it is
+ * not a constant-time lookup.
+ */
+public class LineCompletionTable {
+
+	private static final int SIZE = PokerSquares.SIZE; // number of cells in a line
+	private static final int NUM_RANKS = Card.NUM_RANKS;
+	private static final int NUM_SUITS = Card.NUM_SUITS;
+	private static final int NUM_HANDS = PokerHand.NUM_HANDS;
+	private static final long[][] CHOOSE = new long[Card.NUM_CARDS + 1][SIZE + 1]; // C(n, k) for k <= 5
+	private static final int[] OFFSETS = new int[SIZE + 2]; // index of the first rank multiset with k cards
+	/**
+	 * the number of distinct line keys: rank multisets of 0 to 5 cards, each with or without a shared suit
+	 */
+	public static final int NUM_KEYS;
+	private static final float[] probabilities; // hand class probabilities indexed by key * NUM_HANDS + hand id
+
+	static {
+		for (int n = 0; n <= Card.NUM_CARDS; n++) {
+			CHOOSE[n][0] = 1;
+			for (int k = 1; k <= Math.min(n, SIZE); k++)
+				CHOOSE[n][k] = CHOOSE[n - 1][k - 1] + (k <= n - 1 ? CHOOSE[n - 1][k] : 0);
+		}
+		// There are C(NUM_RANKS + k - 1, k) multisets of k ranks.
+		for (int k = 0; k <= SIZE; k++)
+			OFFSETS[k + 1] = OFFSETS[k] + (int) CHOOSE[NUM_RANKS + k - 1][k];
+		NUM_KEYS = 2 * OFFSETS[SIZE + 1];
+		probabilities = new float[NUM_KEYS * NUM_HANDS];
+
+		int[] rankCounts = new int[NUM_RANKS];
+		int[] available = new int[NUM_RANKS];
+		int[][] availableInSuit = new int[1][NUM_RANKS];
+		int[][] availableInAnySuit = new int[NUM_SUITS][NUM_RANKS];
+		for (int[] suitAvailable : availableInAnySuit)
+			java.util.Arrays.fill(suitAvailable, 1);
+		int[] added = new int[NUM_RANKS];
+		double[] handWays = new double[NUM_HANDS];
+		for (int k = 0; k <= SIZE; k++)
+			for (int suited = 0; suited < 2; suited++)
+				for (int[] ranks = new int[k]; ranks != null; ranks = nextMultiset(ranks)) {
+					java.util.Arrays.fill(rankCounts, 0);
+					for (int rank : ranks)
+						rankCounts[rank]++;
+					boolean hasPair = false;
+					for (int r = 0; r < NUM_RANKS; r++) {
+						available[r] = NUM_SUITS - rankCounts[r];
+						availableInSuit[0][r] = rankCounts[r] == 0 ? 1 : 0;
+						hasPair |= rankCounts[r] > 1;
+					}
+					// Cards sharing a suit have distinct ranks, and 0 or 1 cards always count as suited.
+					if ((suited == 1 && hasPair) || (suited == 0 && k <= 1))
+						continue;
+					java.util.Arrays.fill(handWays, 0);
+					// Any of the four suits can make a flush from an empty line.
+					addCompletions(rankCounts, available, suited == 0 ? null : k == 0 ? availableInAnySuit : availableInSuit,
+							added, 0, SIZE - k, 1, handWays);
+					double total = CHOOSE[Card.NUM_CARDS - k][SIZE - k];
+					int key = getKey(ranks, suited == 1);
+					for (int h = 0; h < NUM_HANDS; h++)
+						probabilities[key * NUM_HANDS + h] = (float) (handWays[h] / total);
+				}
+	}
+
+	private final double[] expectedScores; // expected final line score indexed by key
+
+	/**
+	 * Create a table of expected final line scores under the given point system.
+	 * @param system Poker Squares point system
+	 */
+	public LineCompletionTable(PokerSquaresPointSystem system) {
+		int[] scoreTable = system.getScoreTable();
+		expectedScores = new double[NUM_KEYS];
+		for (int key = 0; key < NUM_KEYS; key++) {
+			double expected = 0;
+			for (int h = 0; h < NUM_HANDS; h++)
+				expected += probabilities[key * NUM_HANDS + h] * scoreTable[h];
+			expectedScores[key] = expected;
+		}
+	}
+
+	/**
+	 * Get the expected final score of the given line (which may contain null values).
+	 * @param hand Card line
+	 * @return expected final score of the line when completed with random unseen cards
+	 */
+	public double getExpectedScore(Card[] hand) {
+		return expectedScores[getKey(hand)];
+	}
+
+	/**
+	 * Get the expected final score of a line given by its key.
+	 * @param key line key from getKey
+	 * @return expected final score of the line when completed with random unseen cards
+	 */
+	public double getExpectedScore(int key) {
+		return expectedScores[key];
+	}
+
+	/**
+	 * Get the sum of the expected final scores of the rows and columns of the given grid.
+	 * @param grid 2D Card array representing play grid
+	 * @return sum of the expected final scores of the grid's 10 lines
+	 */
+	public double getExpectedScore(Card[][] grid) {
+		double total = 0;
+		for (int line = 0; line < 2 * SIZE; line++)
+			total += expectedScores[getKey(grid, line)];
+		return total;
+	}
+
+	/**
+	 * Get the key of the given line (which may contain null values).
+	 * @param hand Card line of at most 5 cards
+	 * @return key of the line's rank multiset and suitedness
+	 */
+	public static int getKey(Card[] hand) {
+		long rankCounts = 0; // 3 bits per rank
+		int numCards = 0, suit = -1;
+		boolean suited = true;
+		for (Card card : hand)
+			if (card != null) {
+				rankCounts += 1L << (3 * card.getRank());
+				numCards++;
+				if (suit == -1)
+					suit = card.getSuit();
+				else if (suit != card.getSuit())
+					suited = false;
+			}
+		return getKey(rankCounts, numCards, suited);
+	}
+
+	/**
+	 * Get the key of the given row or column of a grid.
+	 * @param grid 2D Card array representing play grid
+	 * @param line rows 0 through 4 followed by columns 0 through 4
+	 * @return key of the line's rank multiset and suitedness
+	 */
+	public static int getKey(Card[][] grid, int line) {
+		long rankCounts = 0; // 3 bits per rank
+		int numCards = 0, suit = -1;
+		boolean suited = true;
+		for (int i = 0; i < SIZE; i++) {
+			Card card = line < SIZE ? grid[line][i] : grid[i][line - SIZE];
+			if (card != null) {
+				rankCounts += 1L << (3 * card.getRank());
+				numCards++;
+				if (suit == -1)
+					suit = card.getSuit();
+				else if (suit != card.getSuit())
+					suited = false;
+			}
+		}
+		return getKey(rankCounts, numCards, suited);
+	}
+
+	/**
+	 * Get the key from packed rank counts.  Sorted ranks r_0 <= ... <= r_(k-1) are mapped to the strictly increasing
+	 * r_i + i and ranked in the combinatorial number system.
+	 */
+	private static int getKey(long rankCounts, int numCards, boolean suited) {
+		int index = 0, i = 0;
+		for (int rank = 0; rank < NUM_RANKS; rank++)
+			for (int count = (int) (rankCounts >>> (3 * rank)) & 7; count > 0; count--, i++)
+				index += CHOOSE[rank + i][i + 1];
+		return 2 * (OFFSETS[numCards] + index) + (suited ? 1 : 0);
+	}
+
+	private static int getKey(int[] sortedRanks, boolean suited) {
+		long rankCounts = 0;
+		for (int rank : sortedRanks)
+			rankCounts += 1L << (3 * rank);
+		return getKey(rankCounts, sortedRanks.length, suited);
+	}
+
+	/**
+	 * Get the probabilities that the given line ends as each Poker hand class when completed with cards drawn at random
+	 * from all cards not in the line.
+	 * @param hand Card line (which may contain null values)
+	 * @return an array of probabilities indexed by Poker hand classification identification numbers
+	 */
+	public static double[] getHandProbabilities(Card[] hand) {
+		int key = getKey(hand);
+		double[] handProbabilities = new double[NUM_HANDS];
+		for (int h = 0; h < NUM_HANDS; h++)
+			handProbabilities[h] = probabilities[key * NUM_HANDS + h];
+		return handProbabilities;
+	}
+
+	/**
+	 * Get the probabilities that the given line ends as each Poker hand class when completed with cards drawn at random
+	 * from the given remaining deck.
+	 * @param hand Card line (which may contain null values)
+	 * @param deck array whose elements from index start onward are the cards that may still be drawn
+	 * @param start index of the first undrawn card in deck
+	 * @return an array of probabilities indexed by Poker hand classification identification numbers
+	 */
+	public static double[] getHandProbabilities(Card[] hand, Card[] deck, int start) {
+		int[] rankCounts = new int[NUM_RANKS];
+		int numCards = 0, suit = -1;
+		boolean suited = true;
+		for (Card card : hand)
+			if (card != null) {
+				rankCounts[card.getRank()]++;
+				numCards++;
+				if (suit == -1)
+					suit = card.getSuit();
+				else if (suit != card.getSuit())
+					suited = false;
+			}
+		int[] available = new int[NUM_RANKS];
+		int[][] availableInSuit = new int[NUM_SUITS][NUM_RANKS];
+		for (int i = start; i < deck.length; i++) {
+			available[deck[i].getRank()]++;
+			availableInSuit[deck[i].getSuit()][deck[i].getRank()]++;
+		}
+		double[] handWays = new double[NUM_HANDS];
+		int open = SIZE - numCards;
+		int[][] flushAvailable = suit == -1 ? availableInSuit : suited ? new int[][] { availableInSuit[suit] } : null;
+		addCompletions(rankCounts, available, flushAvailable, new int[NUM_RANKS], 0, open, 1, handWays);
+		double total = choose(deck.length - start, open);
+		for (int h = 0; h < NUM_HANDS; h++)
+			handWays[h] /= total;
+		return handWays;
+	}
+
+	/**
+	 * Recursively enumerate the rank multisets that complete a line, adding the number of ways each completion makes
+	 * each hand class.
+	 * @param rankCounts rank counts of the line's cards
+	 * @param available number of drawable cards of each rank
+	 * @param flushAvailable for each suit in which a flush is still possible, the number of drawable cards of each rank
+	 * in that suit, or null if a flush is impossible
+	 * @param added rank counts of the cards added so far
+	 * @param rank lowest rank that may still be added
+	 * @param open number of cards still to add
+	 * @param ways number of ways to draw the cards added so far
+	 * @param handWays accumulated ways indexed by hand class identification number
+	 */
+	private static void addCompletions(int[] rankCounts, int[] available, int[][] flushAvailable, int[] added, int rank,
+			int open, double ways, double[] handWays) {
+		if (open == 0) {
+			double flushWays = 0;
+			if (flushAvailable != null)
+				for (int[] suitAvailable : flushAvailable) {
+					double suitWays = 1;
+					for (int r = 0; r < NUM_RANKS && suitWays > 0; r++)
+						if (added[r] > 0)
+							suitWays *= choose(suitAvailable[r], added[r]);
+					flushWays += suitWays;
+				}
+			for (int r = 0; r < NUM_RANKS; r++)
+				rankCounts[r] += added[r];
+			handWays[classify(rankCounts, false)] += ways - flushWays;
+			if (flushWays > 0)
+				handWays[classify(rankCounts, true)] += flushWays;
+			for (int r = 0; r < NUM_RANKS; r++)
+				rankCounts[r] -= added[r];
+			return;
+		}
+		for (int r = rank; r < NUM_RANKS; r++)
+			for (int n = 1; n <= Math.min(open, available[r]); n++) {
+				added[r] = n;
+				addCompletions(rankCounts, available, flushAvailable, added, r + 1, open - n,
+						ways * choose(available[r], n), handWays);
+				added[r] = 0;
+			}
+	}
+
+	/**
+	 * Classify a complete five-card hand from its rank counts, consistent with PokerHand.getPokerHand.
+	 * @param rankCounts number of cards of each rank
+	 * @param flush whether all five cards share a suit
+	 * @return Poker hand classification identification number
+	 */
+	private static int classify(int[] rankCounts, boolean flush) {
+		int maxOfAKind = 0, pairs = 0, rankMask = 0;
+		for (int r = 0; r < NUM_RANKS; r++) {
+			int count = rankCounts[r];
+			if (count > maxOfAKind)
+				maxOfAKind = count;
+			if (count == 2)
+				pairs++;
+			if (count > 0)
+				rankMask |= 1 << r;
+		}
+		boolean royal = rankMask == (1 | 0x1E00);
+		boolean straight = royal;
+		if (maxOfAKind == 1) {
+			int low = Integer.numberOfTrailingZeros(rankMask);
+			straight |= rankMask == (0x1F << low);
+		}
+		if (flush && royal)
+			return PokerHand.ROYAL_FLUSH.id;
+		if (flush && straight)
+			return PokerHand.STRAIGHT_FLUSH.id;
+		if (maxOfAKind == 4)
+			return PokerHand.FOUR_OF_A_KIND.id;
+		if (maxOfAKind == 3 && pairs == 1)
+			return PokerHand.FULL_HOUSE.id;
+		if (flush)
+			return PokerHand.FLUSH.id;
+		if (straight)
+			return PokerHand.STRAIGHT.id;
+		if (maxOfAKind == 3)
+			return PokerHand.THREE_OF_A_KIND.id;
+		if (pairs == 2)
+			return PokerHand.TWO_PAIR.id;
+		if (pairs == 1)
+			return PokerHand.ONE_PAIR.id;
+		return PokerHand.HIGH_CARD.id;
+	}
+
+	private static double choose(int n, int k) {
+		return k > n ? 0 : CHOOSE[n][k];
+	}
+
+	/**
+	 * Advance a sorted rank multiset to the next one in lexicographic order.
+	 * @param ranks nondecreasing ranks
+	 * @return the same array holding the next multiset, or null after the last one
+	 */
+	private static int[] nextMultiset(int[] ranks) {
+		int i = ranks.length - 1;
+		while (i >= 0 && ranks[i] == NUM_RANKS - 1)
+			i--;
+		if (i < 0)
+			return null;
+		ranks[i]++;
+		for (int j = i + 1; j < ranks.length; j++)
+			ranks[j] = ranks[i];
+		return ranks;
+	}
+
+	/**
+	 * Validate the table and the deck-specific probabilities against brute-force enumeration of all completions.
+	 * @param args (not used)
+	 */
+	public static void main(String[] args) {
+		Random random = new Random(0);
+		for (int numCards = SIZE; numCards >= 0; numCards--) {
+			double maxTableError = 0, maxDeckError = 0;
+			int trials = numCards >= 2 ? 20 : 2;
+			for (int trial = 0; trial < trials; trial++) {
+				Card[] deck = Card.getAllCards();
+				for (int i = deck.length - 1; i > 0; i--) {
+					int j = random.nextInt(i + 1);
+					Card tmp = deck[i];
+					deck[i] = deck[j];
+					deck[j] = tmp;
+				}
+				Card[] hand = new Card[SIZE];
+				for (int i = 0; i < numCards; i++)
+					hand[i] = deck[i];
+				// Table: all cards not in the line.  Deck: additionally remove 15 cards dealt elsewhere.
+				maxTableError = Math.max(maxTableError,
+						maxError(getHandProbabilities(hand), bruteForce(hand, deck, numCards)));
+				maxDeckError = Math.max(maxDeckError, maxError(getHandProbabilities(hand, deck, numCards + 15),
+						bruteForce(hand, deck, numCards + 15)));
+			}
+			System.out.printf("%d cards: max table error %.2e, max deck error %.2e\n", numCards, maxTableError,
+					maxDeckError);
+		}
+		LineCompletionTable table = new LineCompletionTable(PokerSquaresPointSystem.getBritishPointSystem());
+		System.out.printf("Expected British score of an empty line: %.4f\n", table.getExpectedScore(new Card[SIZE]));
+	}
+
+	private static double maxError(double[] a, double[] b) {
+		double max = 0;
+		for (int i = 0; i < a.length; i++)
+			max = Math.max(max, Math.abs(a[i] - b[i]));
+		return max;
+	}
+
+	private static double[] bruteForce(Card[] hand, Card[] deck, int start) {
+		double[] counts = new double[NUM_HANDS];
+		Card[] full = hand.clone();
+		long total = bruteForce(full, 0, deck, start, counts);
+		for (int h = 0; h < NUM_HANDS; h++)
+			counts[h] /= total;
+		return counts;
+	}
+
+	private static long bruteForce(Card[] full, int cell, Card[] deck, int start, double[] counts) {
+		while (cell < SIZE && full[cell] != null)
+			cell++;
+		if (cell == SIZE) {
+			counts[PokerHand.getPokerHandId(full)]++;
+			return 1;
+		}
+		long total = 0;
+		for (int i = start; i < deck.length; i++) {
+			full[cell] = deck[i];
+			total += bruteForce(full, cell + 1, deck, i + 1, counts);
+		}
+		full[cell] = null;
+		return total;
+	}
+}
@@ -0,0 +1,223 @@
+import java.util.Arrays;
+
+/**
+ * LineHeuristicMemo - a bounded memo of exact line heuristic values keyed by long line keys.
+ * It remembers the value of a deterministic lookup so that the lookup need not be repeated; it holds no rollout
+ * estimates, so it does not change what a search learns, only how fast it evaluates.  Entries live in primitive
+ * arrays with open addressing: a key may occupy one of PROBES consecutive slots from its hash.  When all of them are
+ * taken, one is evicted by the CLOCK (second chance) rule: a lookup hit marks its entry referenced, and the eviction
+ * scan clears the marks of referenced entries, evicting the first unreferenced one (or the first slot if all were
+ * referenced).  Entries are never removed otherwise, so lookups stop at the first empty slot.
+ * The memo is not thread-safe; each player should own its memo.
+ */
+public class LineHeuristicMemo {
+
+	private static final long EMPTY = Long.MIN_VALUE; // key of an empty slot, which may not be used as a key
+	private static final int PROBES = 8; // slots a key may occupy
+	private final int mask; // slot index mask
+	private final long[] keys; // key of each slot
+	private final double[] values; // value of each slot
+	private final boolean[] referenced; // CLOCK reference mark of each slot
+	private int size = 0; // number of occupied slots
+	private long hits = 0, misses = 0, evictions = 0; // lookup and eviction statistics
+
+	/**
+	 * Create an empty memo.
+	 * @param capacityLog2 base 2 logarithm of the number of slots
+	 */
+	public LineHeuristicMemo(int capacityLog2) {
+		if (capacityLog2 < 3 || capacityLog2 > 30)
+			throw new IllegalArgumentException("Capacity must be 2^3 to 2^30 slots: " + capacityLog2);
+		int capacity = 1 << capacityLog2;
+		mask = capacity - 1;
+		keys = new long[capacity];
+		values = new double[capacity];
+		referenced = new boolean[capacity];
+		clear();
+	}
+
+	/**
+	 * Remove all entries.  The statistics are kept.
+	 */
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		Arrays.fill(referenced, false);
+		size = 0;
+	}
+
+	/**
+	 * Get the first slot of a key, mixing its bits (the finalizer of MurmurHash3).
+	 * @param key key
+	 * @return first slot index
+	 */
+	private int getHome(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return (int) key & mask;
+	}
+
+	/**
+	 * Find the slot of a key, counting the lookup as a hit or miss.
+	 * @param key key
+	 * @return slot index, or -1 if the key is not remembered
+	 */
+	public int find(long key) {
+		int slot = getHome(key);
+		for (int i = 0; i < PROBES; i++, slot = (slot + 1) & mask) {
+			long k = keys[slot];
+			if (k == key) {
+				referenced[slot] = true;
+				hits++;
+				return slot;
+			}
+			if (k == EMPTY)
+				break;
+		}
+		misses++;
+		return -1;
+	}
+
+	/**
+	 * Get the value of a slot returned by find or put.
+	 * @param slot slot index
+	 * @return value
+	 */
+	public double getValue(int slot) {
+		return values[slot];
+	}
+
+	/**
+	 * Remember the value of a key, replacing any value of it.
+	 * @param key key (not Long.MIN_VALUE)
+	 * @param value value
+	 * @return slot index of the entry
+	 */
+	public int put(long key, double value) {
+		int slot = getSlot(key);
+		values[slot] = value;
+		return slot;
+	}
+
+	/**
+	 * Get the slot of a key, occupying an empty slot or evicting an entry if it is not remembered.  A new entry has a
+	 * value of 0.
+	 * @param key key
+	 * @return slot index
+	 */
+	private int getSlot(long key) {
+		if (key == EMPTY)
+			throw new IllegalArgumentException("Reserved key: " + key);
+		int home = getHome(key);
+		int slot = home;
+		for (int i = 0; i < PROBES; i++, slot = (slot + 1) & mask) {
+			long k = keys[slot];
+			if (k == key)
+				return slot;
+			if (k == EMPTY) {
+				size++;
+				return occupy(slot, key);
+			}
+		}
+		// all probe slots are taken: evict by the CLOCK rule
+		int victim = home; // if all were referenced, the scan clears every mark and evicts the first
+		slot = home;
+		for (int i = 0; i < PROBES; i++, slot = (slot + 1) & mask) {
+			if (!referenced[slot]) {
+				victim = slot;
+				break;
+			}
+			referenced[slot] = false;
+		}
+		evictions++;
+		return occupy(victim, key);
+	}
+
+	/**
+	 * Give a slot to a new key.
+	 * @param slot slot index
+	 * @param key key
+	 * @return slot index
+	 */
+	private int occupy(int slot, long key) {
+		keys[slot] = key;
+		values[slot] = 0;
+		referenced[slot] = false;
+		return slot;
+	}
+
+	/**
+	 * Get the number of remembered entries.
+	 * @return number of entries
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Get the number of slots.
+	 * @return capacity
+	 */
+	public int getCapacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Get the number of lookups that found their key.
+	 * @return number of hits
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Get the number of lookups that did not find their key.
+	 * @return number of misses
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Get the number of entries evicted to make room for others.
+	 * @return number of evictions
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Get the fraction of lookups that found their key.
+	 * @return hit rate, or 0 before any lookup
+	 */
+	public double getHitRate() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	/**
+	 * Get the memory used by the slot arrays: a long key, double value and boolean mark per slot.
+	 * @return bytes used, ignoring array headers
+	 */
+	public long getMemoryBytes() {
+		return (long) keys.length * (Long.BYTES + Double.BYTES + 1);
+	}
+
+	/**
+	 * Reset the lookup and eviction statistics.
+	 */
+	public void resetStats() {
+		hits = misses = evictions = 0;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("%d/%d entries (%d KB), %d lookups, %.2f%% hits, %d evictions", size, keys.length,
+				getMemoryBytes() / 1024, hits + misses, 100 * getHitRate(), evictions);
+	}
+}
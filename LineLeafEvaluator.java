@@ -0,0 +1,16 @@
+/**
+ * LineLeafEvaluator - a LeafEvaluator whose grid score is the sum of the scores of the grid's 10 lines (5 rows and 5
+ * columns), each scored on its own and regardless of the order of its cards.  This lets the effect of a play be
+ * computed from its row and column alone (see LineDeltaEvaluator).
+ */
+public interface LineLeafEvaluator extends LeafEvaluator {
+
+	/**
+	 * evaluateLine - scores one line of a simulated grid.  evaluate(grid, numPlays) must equal the sum of this score
+	 * over the grid's rows and columns.
+	 * @param line - cards of the line, or null (for empty positions)
+	 * @param numPlays - number of cards in the grid
+	 * @return score of the line
+	 */
+	double evaluateLine(Card[] line, int numPlays);
+}
@@ -0,0 +1,53 @@
+import java.util.Random;
+
+/**
+ * LookaheadRolloutPolicy - a one-ply lookahead rollout policy using the compiled LineCompletionTable of the point
+ * system.  The card is placed where it most increases the expected final scores of its row and column, breaking ties
+ * in favor of the first such position after a random starting offset.
+ */
+public class LookaheadRolloutPolicy implements RolloutPolicy {
+
+	private final int SIZE = PokerSquares.SIZE;
+	private LineCompletionTable table; // expected final line scores for the current point system
+
+	/* (non-Javadoc)
+	 * @see RolloutPolicy#setPointSystem(PokerSquaresPointSystem)
+	 */
+	@Override
+	public void setPointSystem(PokerSquaresPointSystem system) {
+		table = PointSystemAnalyzer.getAnalyzer(system).getLineTable();
+	}
+
+	/* (non-Javadoc)
+	 * @see RolloutPolicy#choosePlay(Card[][], Card, int[], int, Random)
+	 */
+	@Override
+	public int choosePlay(Card[][] grid, Card card, int[] legalPlays, int numLegal, Random random) {
+		int offset = random.nextInt(numLegal);
+		int bestPlay = legalPlays[offset];
+		double bestDelta = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < numLegal; i++) {
+			int play = legalPlays[(offset + i) % numLegal];
+			int row = play / SIZE, col = play % SIZE;
+			double before = table.getExpectedScore(LineCompletionTable.getKey(grid, row))
+					+ table.getExpectedScore(LineCompletionTable.getKey(grid, SIZE + col));
+			grid[row][col] = card;
+			double after = table.getExpectedScore(LineCompletionTable.getKey(grid, row))
+					+ table.getExpectedScore(LineCompletionTable.getKey(grid, SIZE + col));
+			grid[row][col] = null;
+			if (after - before > bestDelta) {
+				bestDelta = after - before;
+				bestPlay = play;
+			}
+		}
+		return bestPlay;
+	}
+
+	/* (non-Javadoc)
+	 * @see RolloutPolicy#getName()
+	 */
+	@Override
+	public String getName() {
+		return "Lookahead";
+	}
+}
@@ -0,0 +1,316 @@
+import java.io.File;
+
+/**
+ * MonteCarloPlayer - a PokerSquaresPlayer that plays by a MonteCarloSearch.  Subclasses choose the depth limit and
+ * configure the search (e.g. its LeafEvaluator) and name the player; the other parts of the search can be set by the
+ * player's users, who may also let the player ponder between moves (see setPondering).
+ */
+public abstract class MonteCarloPlayer implements PokerSquaresPlayer, SimulationCounter, SearchStatsProvider,
+		ReplayablePlayer {
+
+	protected final MonteCarloSearch search; // the search that chooses plays
+	private CommonRandomNumbersAllocator commonRandomNumbersAllocator; // allocator of setCommonRandomNumbers(true)
+	private Ponderer ponderer; // searches between moves if pondering is enabled, or null
+	private boolean autoDepth = false; // whether setPointSystem loads the player's depth calibration file
+
+	/**
+	 * Create a Monte Carlo player that simulates play to a given depth limit.
+	 * @param depthLimit depth limit for simulated play
+	 */
+	protected MonteCarloPlayer(int depthLimit) {
+		search = new MonteCarloSearch(depthLimit);
+	}
+
+	/* (non-Javadoc)
+	 * @see PokerSquaresPlayer#init()
+	 */
+	@Override
+	public void init() {
+		stopPondering();
+		search.init();
+	}
+
+	/* (non-Javadoc)
+	 * @see PokerSquaresPlayer#getPlay(Card, long)
+	 */
+	@Override
+	public int[] getPlay(Card card, long millisRemaining) {
+		if (ponderer == null)
+			return search.getPlay(card, millisRemaining);
+		ponderer.stop();
+		ponderer.applyTo(search, card);
+		int[] play = search.getPlay(card, millisRemaining);
+		ponderer.start(search);
+		return play;
+	}
+
+	/* (non-Javadoc)
+	 * @see PokerSquaresPlayer#setPointSystem(PokerSquaresPointSystem, long)
+	 */
+	@Override
+	public void setPointSystem(PokerSquaresPointSystem system, long millis) {
+		stopPondering();
+		search.setPointSystem(system);
+		if (autoDepth)
+			search.setDepthCalibration(loadDepthCalibration());
+	}
+
+	/**
+	 * Set whether the rollout depth limit of each move is chosen by the player's depth calibration file (see
+	 * getDepthCalibrationFilename and DepthCalibration), which setPointSystem then loads.  If the player has no such
+	 * file, or it is missing, every move uses the depth limit given at construction.  Disabling auto depth removes any
+	 * depth calibration.
+	 * @param enabled whether to choose the depth limit of each move from the depth calibration file
+	 */
+	public void setAutoDepth(boolean enabled) {
+		autoDepth = enabled;
+		if (!enabled)
+			search.setDepthCalibration(null);
+	}
+
+	/**
+	 * Get whether the depth limit of each move is chosen from the player's depth calibration file.
+	 * @return whether auto depth is enabled
+	 */
+	public boolean isAutoDepth() {
+		return autoDepth;
+	}
+
+	/**
+	 * Get the path of the depth calibration file loaded with auto depth.  The default is none.
+	 * @return path of the depth calibration file, or null if the player has none
+	 */
+	protected String getDepthCalibrationFilename() {
+		return null;
+	}
+
+	/**
+	 * Load the player's depth calibration file.
+	 * @return depth calibration, or null if the player has no depth calibration file or it is missing
+	 */
+	private DepthCalibration loadDepthCalibration() {
+		String path = getDepthCalibrationFilename();
+		if (path == null || !new File(path).exists())
+			return null;
+		return DepthCalibration.load(path);
+	}
+
+	/**
+	 * Set whether the player ponders: after each move, a background thread keeps simulating from the new state for
+	 * every card that may be dealt next, until the next getPlay call, whose search starts from the statistics for the
+	 * dealt card (see Ponderer).  Pondering uses time the harness does not charge to the player, but makes play
+	 * irreproducible.  It pays off when the time between moves is comparable to the time of a move, i.e. under tight
+	 * game times; with several seconds per game it makes no measurable difference (see Ponderer.main).  It is stopped
+	 * by getPlay, init and setPointSystem; subclasses must stop it (see stopPondering) before changing what the search
+	 * uses to simulate.
+	 * @param enabled whether to ponder between moves
+	 */
+	public void setPondering(boolean enabled) {
+		stopPondering();
+		ponderer = enabled ? new Ponderer() : null;
+	}
+
+	/**
+	 * Stop pondering, if pondering, and wait for the pondering thread to finish.
+	 */
+	protected void stopPondering() {
+		if (ponderer != null)
+			ponderer.stop();
+	}
+
+	/**
+	 * Get the total number of simulations performed while pondering.
+	 * @return number of pondering simulations
+	 */
+	public long getPonderSimulations() {
+		return ponderer == null ? 0 : ponderer.getSimulations();
+	}
+
+	/**
+	 * Play a card at the given position of the search's grid.
+	 * @param card card to play
+	 * @param row row of the position
+	 * @param col column of the position
+	 */
+	public void makePlay(Card card, int row, int col) {
+		search.makePlay(card, row, col);
+	}
+
+	/**
+	 * Undo the previous play on the search's grid.
+	 */
+	public void undoPlay() {
+		search.undoPlay();
+	}
+
+	/**
+	 * Perform one simulation from the search's grid without counting it, for benchmarks.
+	 * @param depthLimit how many simulated plays to perform
+	 * @return leaf score of the simulated grid
+	 */
+	double simPlay(int depthLimit) {
+		return search.simPlay(depthLimit);
+	}
+
+	/**
+	 * Check the play bookkeeping of the search (see MonteCarloSearch.isConsistent).
+	 * @return whether the bookkeeping is consistent
+	 */
+	boolean isConsistent() {
+		return search.isConsistent();
+	}
+
+	/**
+	 * Seed the search's pseudorandom number generators, making play reproducible given fixed simulations.
+	 * @param seed seed
+	 */
+	@Override
+	public void setSeed(long seed) {
+		search.setSeed(seed);
+	}
+
+	/* (non-Javadoc)
+	 * @see ReplayablePlayer#isGameSeeded()
+	 */
+	@Override
+	public boolean isGameSeeded() {
+		return search.isGameSeeded();
+	}
+
+	/* (non-Javadoc)
+	 * @see ReplayablePlayer#getGameSeed()
+	 */
+	@Override
+	public long getGameSeed() {
+		return search.getSeed();
+	}
+
+	/**
+	 * Set the policy that places simulated cards.  The default places them randomly.
+	 * @param rolloutPolicy rollout policy
+	 */
+	public void setRolloutPolicy(RolloutPolicy rolloutPolicy) {
+		search.setRolloutPolicy(rolloutPolicy);
+	}
+
+	/**
+	 * Set whether all plays of a turn are evaluated on the same sampled card sequences (common random numbers), with
+	 * the search stopping early once the best play is clearly separated from the others (see
+	 * CommonRandomNumbersAllocator).  Otherwise each play gets its own simulations (see UniformSimulationAllocator).
+	 * @param commonRandomNumbers whether to use common random numbers
+	 */
+	public void setCommonRandomNumbers(boolean commonRandomNumbers) {
+		if (commonRandomNumbers && commonRandomNumbersAllocator == null)
+			commonRandomNumbersAllocator = new CommonRandomNumbersAllocator();
+		search.setSimulationAllocator(commonRandomNumbers ? commonRandomNumbersAllocator
+				: new UniformSimulationAllocator());
+	}
+
+	/**
+	 * Set the allocator that spends simulations across candidate plays.
+	 * @param allocator simulation allocator
+	 */
+	public void setSimulationAllocator(SimulationAllocator allocator) {
+		search.setSimulationAllocator(allocator);
+	}
+
+	/**
+	 * Set a depth calibration with which the rollout depth limit of each move is chosen for the move's time and the
+	 * measured simulation speed (see DepthCalibration), or null to use the depth limit given at construction.  With
+	 * auto depth (see setAutoDepth), the next setPointSystem replaces it with the player's calibration file.
+	 * @param calibration depth calibration, or null
+	 */
+	public void setDepthCalibration(DepthCalibration calibration) {
+		search.setDepthCalibration(calibration);
+	}
+
+	/**
+	 * Set the time manager that sets the time budget of each move.
+	 * @param timeManager time manager
+	 */
+	public void setTimeManager(TimeManager timeManager) {
+		search.setTimeManager(timeManager);
+	}
+
+	/**
+	 * Set a fixed number of simulations per candidate play, making the search independent of the time given (and of
+	 * machine speed).  With common random numbers, this is the number of shared samples drawn, with no early stop.
+	 * @param fixedSimulations simulations per candidate play, or 0 to simulate for the time given
+	 */
+	@Override
+	public void setFixedSimulations(int fixedSimulations) {
+		search.setFixedSimulations(fixedSimulations);
+	}
+
+	/* (non-Javadoc)
+	 * @see ReplayablePlayer#getFixedSimulations()
+	 */
+	@Override
+	public int getFixedSimulations() {
+		return search.getFixedSimulations();
+	}
+
+	/**
+	 * Set whether each move is protected by a hard deadline (see DeadlineGuard), which is enabled by default.
+	 * @param enabled whether to guard moves with a hard deadline
+	 */
+	public void setDeadlineGuard(boolean enabled) {
+		search.setDeadlineGuard(enabled);
+	}
+
+	/**
+	 * Get the number of moves on which the hard deadline fired and the best play found so far was returned.
+	 * @return number of fallback moves
+	 */
+	public long getFallbacks() {
+		return search.getFallbacks();
+	}
+
+	/* (non-Javadoc)
+	 * @see SearchStatsProvider#isMoveFallback()
+	 */
+	@Override
+	public boolean isMoveFallback() {
+		return search.isMoveFallback();
+	}
+
+	/* (non-Javadoc)
+	 * @see SearchStatsProvider#getMoveSimulations()
+	 */
+	@Override
+	public long getMoveSimulations() {
+		return search.getMoveSimulations();
+	}
+
+	/* (non-Javadoc)
+	 * @see SearchStatsProvider#getMoveNodes()
+	 */
+	@Override
+	public long getMoveNodes() {
+		return search.getMoveNodes();
+	}
+
+	/* (non-Javadoc)
+	 * @see SearchStatsProvider#getMoveDepth()
+	 */
+	@Override
+	public int getMoveDepth() {
+		return search.getMoveDepth();
+	}
+
+	/* (non-Javadoc)
+	 * @see SearchStatsProvider#getMoveCandidates()
+	 */
+	@Override
+	public int getMoveCandidates() {
+		return search.getMoveCandidates();
+	}
+
+	/* (non-Javadoc)
+	 * @see SimulationCounter#getSimulations()
+	 */
+	@Override
+	public long getSimulations() {
+		return search.getSimulations();
+	}
+}
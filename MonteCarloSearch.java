@@ -0,0 +1,604 @@
+import java.util.Random;
+
+/**
+ * MonteCarloSearch - the Monte Carlo search shared by the Monte Carlo players (see MonteCarloPlayer).
+ * The search keeps the real game state and plays simulated card draws and placements forward from it to a depth limit
+ * (or game end), scoring the resulting grids.  Its parts are pluggable:
+ *   a LeafEvaluator scores the grid at the end of each simulation (by default, its current score),
+ *   a RolloutPolicy places the simulated cards (by default, randomly),
+ *   a SimulationAllocator spends the simulations across the candidate plays and chooses one (by default, equal time
+ *     and independent simulations for each candidate), and
+ *   a TimeManager sets the time budget of each move (by default, an even share of the remaining time), and
+ *   a DepthCalibration, if set, chooses the depth limit of each move for its time budget and the measured simulation
+ *     speed (by default, the depth limit is fixed).
+ * Each move is also protected by a hard deadline (see DeadlineGuard) unless it is disabled, and may start from prior
+ * statistics of its candidate plays gathered between moves (see Ponderer).
+ *
+ * Plays are recorded in constant time: plays holds the play positions in play order followed by the empty positions,
+ * simDeck holds the dealt cards in deal order followed by the undealt cards, and cardSlot and playSlot record the
+ * index of each card and position in them.
+ */
+public class MonteCarloSearch {
+
+	private static final int SIZE = PokerSquares.SIZE; // number of rows/columns in square grid
+	private static final int NUM_POS = SIZE * SIZE; // number of positions in square grid
+	private static final int NUM_CARDS = Card.NUM_CARDS; // number of cards in deck
+	private final Random random = new Random(); // pseudorandom number generator for Monte Carlo simulation
+	private final Random sampleRandom = new Random(); // pseudorandom number generator reseeded for each shared deal
+	private boolean seededSinceInit = false; // whether setSeed was called since the last init
+	private boolean gameSeeded = false; // whether setSeed was called before the current game, since the previous one
+	private long seed; // seed of the last setSeed call
+	private final int[] plays = new int[NUM_POS]; // positions of plays so far (index 0 through numPlays - 1) recorded as row-major indices,
+	                                              // followed by the yet unplayed positions
+	private int numPlays = 0; // number of Cards played into the grid so far
+	private final Card[][] grid = new Card[SIZE][SIZE]; // grid with Card objects or null (for empty positions)
+	private final Card[] simDeck = Card.getAllCards(); // dealt cards in deal order, followed by the undealt cards
+	private final int[] cardSlot = getIdentity(NUM_CARDS); // index in simDeck of each card, by card id
+	private final int[] playSlot = getIdentity(NUM_POS); // index in plays of each play position
+	private final int[][] legalPlayLists = new int[NUM_POS][NUM_POS]; // legal play lists indexed by numPlays (depth)
+	private int numCandidates; // number of candidate plays of the current move, from index 0 of legalPlayLists[numPlays]
+	private final int depthLimit; // depth limit of simulated play given at construction
+	private int moveDepth; // depth limit of simulated play in the current move
+	private DepthCalibration depthCalibration; // chooses the depth limit of each move, or null for a fixed depth limit
+	private static final double SPEED_DECAY = 0.8; // weight of the previous relative simulation time in its update
+	private double relativeSimulationNanos = 1; // measured simulation time relative to the calibration's
+	private PokerSquaresPointSystem system; // point system
+	private LeafEvaluator leafEvaluator = new ScoreLeafEvaluator(); // scoring of simulated grids
+	private RolloutPolicy rolloutPolicy = new RandomRolloutPolicy(); // placement of simulated cards
+	private SimulationAllocator allocator = new UniformSimulationAllocator(); // spending of simulations across candidates
+	private TimeManager timeManager = new EvenTimeManager(); // time budget of each move
+	private int fixedSimulations = 0; // simulations per candidate play regardless of time, or 0 to use the time given
+	private DeadlineGuard deadlineGuard = new DeadlineGuard(); // hard deadline of each move, or null
+	private long simulations = 0; // total number of MC simulations performed
+	private long nodes = 0; // total number of plays made, real or simulated
+	private long moveSimulations, moveNodes; // simulations and plays made by the most recent getPlay call
+	private int moveCandidates; // number of candidate plays considered by the most recent getPlay call
+	private double[] priorScoreTotals; // prior simulation score totals of the next move by play position, or null
+	private int[] priorCounts; // prior simulations of the next move by play position, or null
+	private int priorDepth; // depth limit of the prior simulations
+	private boolean moveFallback; // whether the hard deadline fired during the most recent getPlay call
+
+	/**
+	 * Create a Monte Carlo search that simulates play to a given depth limit.
+	 * @param depthLimit depth limit for simulated play
+	 */
+	public MonteCarloSearch(int depthLimit) {
+		this.depthLimit = depthLimit;
+		moveDepth = depthLimit;
+	}
+
+	/**
+	 * Get an array whose elements equal their indices, the initial card and play position slots.
+	 * @param length array length
+	 * @return identity array
+	 */
+	private static int[] getIdentity(int length) {
+		int[] identity = new int[length];
+		for (int i = 0; i < length; i++)
+			identity[i] = i;
+		return identity;
+	}
+
+	/**
+	 * Reset the search to an empty grid and the initial deck order for a new game, so that a seeded game depends on
+	 * its seed and deal alone and not on earlier games (see GameLogReplayer).
+	 */
+	public void init() {
+		gameSeeded = seededSinceInit;
+		seededSinceInit = false;
+		for (int row = 0; row < SIZE; row++)
+			for (int col = 0; col < SIZE; col++)
+				grid[row][col] = null;
+		numPlays = 0;
+		for (int i = 0; i < NUM_POS; i++) {
+			plays[i] = i;
+			playSlot[i] = i;
+		}
+		for (int i = 0; i < NUM_CARDS; i++) {
+			simDeck[i] = Card.getCard(i);
+			cardSlot[i] = i;
+		}
+	}
+
+	/**
+	 * Set the point system, passing it to the leaf evaluator and rollout policy.
+	 * @param system point system
+	 */
+	public void setPointSystem(PokerSquaresPointSystem system) {
+		this.system = system;
+		leafEvaluator.setPointSystem(system);
+		rolloutPolicy.setPointSystem(system);
+	}
+
+	/**
+	 * Choose a play for the given card and make it.  The time manager sets the move's time budget and the simulation
+	 * allocator chooses among the empty positions; the forced last play is made without search.
+	 * @param card card to play
+	 * @param millisRemaining game time remaining
+	 * @return chosen play as {row, col}
+	 */
+	public int[] getPlay(Card card, long millisRemaining) {
+		// match simDeck to actual play event; in this way, all indices forward from the card contain a list of
+		//   undealt Cards in some permutation.
+		moveCardToFront(card);
+
+		long startSimulations = simulations, startNodes = nodes;
+		moveCandidates = NUM_POS - numPlays;
+		moveFallback = false;
+		if (numPlays < NUM_POS - 1) { // not the forced last play
+			int remainingPlays = NUM_POS - numPlays; // ignores triviality of last play to keep a conservative margin for game completion
+			long millisPerPlay = timeManager.getMoveMillis(millisRemaining, remainingPlays);
+			// copy the play positions (row-major indices) that are empty
+			System.arraycopy(plays, numPlays, legalPlayLists[numPlays], 0, remainingPlays);
+			numCandidates = remainingPlays;
+			if (depthCalibration != null)
+				moveDepth = depthCalibration.selectDepth(millisPerPlay, remainingPlays, fixedSimulations,
+						relativeSimulationNanos);
+			if (priorCounts != null && priorDepth != moveDepth) // prior simulations must match the move's
+				clearPriorStatistics();
+			if (deadlineGuard != null)
+				deadlineGuard.startMove(millisRemaining, remainingPlays);
+			long startNanos = System.nanoTime();
+			int bestPlay = allocator.choosePlay(this, card, millisPerPlay);
+			moveCandidates = numCandidates; // the allocator may have narrowed them
+			if (depthCalibration != null && simulations > startSimulations) // measure the speed of simulation
+				relativeSimulationNanos = SPEED_DECAY * relativeSimulationNanos + (1 - SPEED_DECAY)
+						* (System.nanoTime() - startNanos) / (simulations - startSimulations)
+						/ depthCalibration.getNanosPerSimulation(moveDepth);
+			if (deadlineGuard != null) {
+				deadlineGuard.endMove(millisPerPlay);
+				moveFallback = deadlineGuard.hasFired();
+			}
+			// update our list of plays, recording the chosen play in its sequential position; all onward from numPlays are empty positions
+			movePlayToFront(bestPlay);
+		}
+		clearPriorStatistics(); // prior statistics only apply to the move they were given for
+
+		int[] playPos = {plays[numPlays] / SIZE, plays[numPlays] % SIZE}; // decode it into row and column
+		makePlay(card, playPos[0], playPos[1]); // make the chosen play (not undoing this time)
+		moveSimulations = simulations - startSimulations;
+		moveNodes = nodes - startNodes;
+		return playPos;
+	}
+
+	/**
+	 * Copy the game state of another search (grid, plays and deck order), with its point system, leaf evaluator,
+	 * rollout policy and move depth limit, so that this search can simulate from the same state.  The evaluator and
+	 * policy are shared, so the two searches must not simulate at the same time.
+	 * @param other search to copy
+	 */
+	public void copyState(MonteCarloSearch other) {
+		for (int row = 0; row < SIZE; row++)
+			System.arraycopy(other.grid[row], 0, grid[row], 0, SIZE);
+		numPlays = other.numPlays;
+		System.arraycopy(other.plays, 0, plays, 0, NUM_POS);
+		System.arraycopy(other.playSlot, 0, playSlot, 0, NUM_POS);
+		System.arraycopy(other.simDeck, 0, simDeck, 0, NUM_CARDS);
+		System.arraycopy(other.cardSlot, 0, cardSlot, 0, NUM_CARDS);
+		system = other.system;
+		leafEvaluator = other.leafEvaluator;
+		rolloutPolicy = other.rolloutPolicy;
+		moveDepth = other.moveDepth;
+	}
+
+	/**
+	 * Swap the given card into index numPlays of simDeck, in constant time using its recorded slot.
+	 * @param card card to be played next
+	 */
+	private void moveCardToFront(Card card) {
+		int cardIndex = cardSlot[card.getCardId()];
+		Card other = simDeck[numPlays];
+		simDeck[cardIndex] = other;
+		cardSlot[other.getCardId()] = cardIndex;
+		simDeck[numPlays] = card;
+		cardSlot[card.getCardId()] = numPlays;
+	}
+
+	/**
+	 * Swap the given play position into index numPlays of plays, in constant time using its recorded slot.
+	 * @param play row-major play position to be played next
+	 */
+	private void movePlayToFront(int play) {
+		int playIndex = playSlot[play];
+		int other = plays[numPlays];
+		plays[playIndex] = other;
+		playSlot[other] = playIndex;
+		plays[numPlays] = play;
+		playSlot[play] = numPlays;
+	}
+
+	/**
+	 * Check the play bookkeeping: cardSlot and playSlot invert simDeck and plays, and the grid holds a card at exactly
+	 * the positions before index numPlays of plays.
+	 * @return whether the bookkeeping is consistent
+	 */
+	boolean isConsistent() {
+		for (int i = 0; i < NUM_CARDS; i++)
+			if (cardSlot[simDeck[i].getCardId()] != i)
+				return false;
+		for (int i = 0; i < NUM_POS; i++)
+			if (playSlot[plays[i]] != i || (grid[plays[i] / SIZE][plays[i] % SIZE] != null) != (i < numPlays))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Play a card at the given position.  The card must be undealt and the position empty.
+	 * @param card card to play
+	 * @param row row of the position
+	 * @param col column of the position
+	 */
+	public void makePlay(Card card, int row, int col) {
+		// match simDeck to event
+		moveCardToFront(card);
+
+		// update plays to reflect chosen play in sequence
+		grid[row][col] = card;
+		movePlayToFront(row * SIZE + col);
+
+		// increment the number of plays taken
+		numPlays++;
+		nodes++;
+	}
+
+	/**
+	 * Undo the previous play.
+	 */
+	public void undoPlay() {
+		numPlays--;
+		int play = plays[numPlays];
+		grid[play / SIZE][play % SIZE] = null;
+	}
+
+	/**
+	 * Perform one simulation of random card draws placed by the rollout policy to the move's depth limit, and count it.
+	 * @return leaf score of the simulated grid
+	 */
+	public double simulate() {
+		double score = simPlay(moveDepth);
+		simulations++;
+		return score;
+	}
+
+	/**
+	 * Perform one simulation of the given card sequence placed by the rollout policy, and count it.
+	 * @param sequence simulated Card draws
+	 * @param depth how many simulated plays to perform
+	 * @param seed seed of the rollout policy's pseudorandom number generator
+	 * @return leaf score of the simulated grid
+	 */
+	public double simulate(Card[] sequence, int depth, long seed) {
+		double score = simPlay(sequence, depth, seed);
+		simulations++;
+		return score;
+	}
+
+	/**
+	 * From the current grid, perform simulated Card draws and placements (depthLimit) iterations forward
+	 * and return the resulting leaf score.
+	 * @param depthLimit how many simulated plays to perform
+	 * @return leaf score after simulation to the given depthLimit or game end
+	 */
+	double simPlay(int depthLimit) {
+		int depth = Math.min(depthLimit, NUM_POS - numPlays); // compute real depth limit, taking into account game end
+		for (int d = 0; d < depth; d++) {
+			// generate a random card draw
+			int c = random.nextInt(NUM_CARDS - numPlays) + numPlays;
+			Card card = simDeck[c];
+			// choose a play from the legal plays
+			int remainingPlays = NUM_POS - numPlays;
+			System.arraycopy(plays, numPlays, legalPlayLists[numPlays], 0, remainingPlays);
+			int play = rolloutPolicy.choosePlay(grid, card, legalPlayLists[numPlays], remainingPlays, random);
+			makePlay(card, play / SIZE, play % SIZE);
+		}
+		double score = leafEvaluator.evaluate(grid, numPlays);
+		// undo MC plays
+		for (int d = 0; d < depth; d++)
+			undoPlay();
+		return score;
+	}
+
+	/**
+	 * From the current grid, place the given simulated Card sequence with the rollout policy, using a pseudorandom
+	 * number generator with the given seed, and return the resulting leaf score.
+	 * @param sequence simulated Card draws
+	 * @param depth how many simulated plays to perform
+	 * @param seed seed of the rollout policy's pseudorandom number generator
+	 * @return leaf score after the simulated plays
+	 */
+	private double simPlay(Card[] sequence, int depth, long seed) {
+		sampleRandom.setSeed(seed);
+		for (int d = 0; d < depth; d++) {
+			int remainingPlays = NUM_POS - numPlays;
+			System.arraycopy(plays, numPlays, legalPlayLists[numPlays], 0, remainingPlays);
+			int play = rolloutPolicy.choosePlay(grid, sequence[d], legalPlayLists[numPlays], remainingPlays, sampleRandom);
+			makePlay(sequence[d], play / SIZE, play % SIZE);
+		}
+		double score = leafEvaluator.evaluate(grid, numPlays);
+		for (int d = 0; d < depth; d++)
+			undoPlay();
+		return score;
+	}
+
+	/**
+	 * Return whether the hard deadline of the current move has passed.  Allocators should stop simulating once it has.
+	 * @return whether the search must stop
+	 */
+	public boolean isPastDeadline() {
+		return deadlineGuard != null && deadlineGuard.isExpired();
+	}
+
+	/**
+	 * Give the next move prior statistics of its candidate plays, e.g. gathered by pondering (see Ponderer).  Allocators
+	 * that evaluate each candidate on its own simulations add them to their own; they are dropped if the move's depth
+	 * limit differs from theirs, and apply to the next move only.  The arrays must not be modified until it is made.
+	 * @param scoreTotals simulation score totals by play position
+	 * @param counts simulations by play position
+	 * @param depth depth limit of the simulations
+	 */
+	public void setPriorStatistics(double[] scoreTotals, int[] counts, int depth) {
+		priorScoreTotals = scoreTotals;
+		priorCounts = counts;
+		priorDepth = depth;
+	}
+
+	/**
+	 * Drop the prior statistics of the next move.
+	 */
+	private void clearPriorStatistics() {
+		priorScoreTotals = null;
+		priorCounts = null;
+	}
+
+	/**
+	 * Get the prior simulation score total of a candidate play of the current move.
+	 * @param play row-major play position
+	 * @return prior score total, or 0 if there are no prior statistics
+	 */
+	public double getPriorScoreTotal(int play) {
+		return priorScoreTotals == null ? 0 : priorScoreTotals[play];
+	}
+
+	/**
+	 * Get the number of prior simulations of a candidate play of the current move.
+	 * @param play row-major play position
+	 * @return number of prior simulations, or 0 if there are no prior statistics
+	 */
+	public int getPriorCount(int play) {
+		return priorCounts == null ? 0 : priorCounts[play];
+	}
+
+	/**
+	 * Get the candidate plays of the current move as row-major indices, valid while the allocator chooses a play.
+	 * An allocator may reorder them.
+	 * @return candidate plays (index 0 through getNumCandidates() - 1)
+	 */
+	public int[] getCandidates() {
+		return legalPlayLists[numPlays];
+	}
+
+	/**
+	 * Get the number of candidate plays of the current move, initially the number of empty positions.
+	 * @return number of candidate plays
+	 */
+	public int getNumCandidates() {
+		return numCandidates;
+	}
+
+	/**
+	 * Narrow the candidate plays of the current move to the first of getCandidates(), e.g. after ranking them.
+	 * @param numCandidates number of candidate plays to keep, at least 1
+	 */
+	public void setNumCandidates(int numCandidates) {
+		if (numCandidates < 1 || numCandidates > this.numCandidates)
+			throw new IllegalArgumentException("Cannot narrow " + this.numCandidates + " candidates to " + numCandidates);
+		this.numCandidates = numCandidates;
+	}
+
+	/**
+	 * Get the current grid with Card objects or null (for empty positions).  The array must not be modified.
+	 * @return grid
+	 */
+	public Card[][] getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Get the evaluator that scores simulated grids.
+	 * @return leaf evaluator
+	 */
+	public LeafEvaluator getLeafEvaluator() {
+		return leafEvaluator;
+	}
+
+	/**
+	 * Get the number of Cards played into the grid so far.
+	 * @return number of plays
+	 */
+	public int getNumPlays() {
+		return numPlays;
+	}
+
+	/**
+	 * Get the deck in which the dealt cards (index 0 through getNumPlays() - 1) precede the undealt cards.  The array
+	 * must not be modified.
+	 * @return simulation deck
+	 */
+	public Card[] getDeck() {
+		return simDeck;
+	}
+
+	/**
+	 * Get the pseudorandom number generator of the search, for allocators' random choices.
+	 * @return pseudorandom number generator
+	 */
+	public Random getRandom() {
+		return random;
+	}
+
+	/**
+	 * Get the depth limit of simulated play given at construction, which is used in every move without a depth
+	 * calibration.
+	 * @return depth limit
+	 */
+	public int getDepthLimit() {
+		return depthLimit;
+	}
+
+	/**
+	 * Get the depth limit of simulated play in the current (or most recent) move.
+	 * @return move depth limit
+	 */
+	public int getMoveDepth() {
+		return moveDepth;
+	}
+
+	/**
+	 * Set a depth calibration that chooses the depth limit of each move, or null to use the depth limit given at
+	 * construction.  The simulation speed relative to the calibration is measured over the moves that follow.
+	 * @param depthCalibration depth calibration, or null
+	 */
+	public void setDepthCalibration(DepthCalibration depthCalibration) {
+		this.depthCalibration = depthCalibration;
+		relativeSimulationNanos = 1;
+		if (depthCalibration == null)
+			moveDepth = depthLimit;
+	}
+
+	/**
+	 * Get the fixed number of simulations per candidate play, or 0 if simulating for the time given.
+	 * @return fixed number of simulations
+	 */
+	public int getFixedSimulations() {
+		return fixedSimulations;
+	}
+
+	/**
+	 * Seed the pseudorandom number generators of the search, making it reproducible given fixed simulations.
+	 * @param seed seed
+	 */
+	public void setSeed(long seed) {
+		random.setSeed(seed);
+		sampleRandom.setSeed(seed + 1);
+		this.seed = seed;
+		seededSinceInit = true;
+	}
+
+	/**
+	 * Return whether setSeed was called before the current game (the last init), since the game before it.
+	 * @return whether the game was seeded
+	 */
+	public boolean isGameSeeded() {
+		return gameSeeded;
+	}
+
+	/**
+	 * Get the seed of the last setSeed call.
+	 * @return seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Set the evaluator that scores simulated grids.  The default scores them by the point system.
+	 * @param leafEvaluator leaf evaluator
+	 */
+	public void setLeafEvaluator(LeafEvaluator leafEvaluator) {
+		this.leafEvaluator = leafEvaluator;
+		if (system != null)
+			leafEvaluator.setPointSystem(system);
+	}
+
+	/**
+	 * Set the policy that places simulated cards.  The default places them randomly.
+	 * @param rolloutPolicy rollout policy
+	 */
+	public void setRolloutPolicy(RolloutPolicy rolloutPolicy) {
+		this.rolloutPolicy = rolloutPolicy;
+		if (system != null)
+			rolloutPolicy.setPointSystem(system);
+	}
+
+	/**
+	 * Set the allocator that spends simulations across candidate plays.  The default gives each an equal share of
+	 * the move's time.
+	 * @param allocator simulation allocator
+	 */
+	public void setSimulationAllocator(SimulationAllocator allocator) {
+		this.allocator = allocator;
+	}
+
+	/**
+	 * Set the time manager that sets the time budget of each move.  The default divides the time evenly.
+	 * @param timeManager time manager
+	 */
+	public void setTimeManager(TimeManager timeManager) {
+		this.timeManager = timeManager;
+	}
+
+	/**
+	 * Set a fixed number of simulations per candidate play, making the search independent of the time given (and of
+	 * machine speed).
+	 * @param fixedSimulations simulations per candidate play, or 0 to simulate for the time given
+	 */
+	public void setFixedSimulations(int fixedSimulations) {
+		this.fixedSimulations = fixedSimulations;
+	}
+
+	/**
+	 * Set whether each move is protected by a hard deadline (see DeadlineGuard), which is enabled by default.
+	 * @param enabled whether to guard moves with a hard deadline
+	 */
+	public void setDeadlineGuard(boolean enabled) {
+		deadlineGuard = enabled ? new DeadlineGuard() : null;
+	}
+
+	/**
+	 * Get the number of moves on which the hard deadline fired and the best play found so far was returned.
+	 * @return number of fallback moves
+	 */
+	public long getFallbacks() {
+		return deadlineGuard == null ? 0 : deadlineGuard.getFallbacks();
+	}
+
+	/**
+	 * Get whether the hard deadline fired during the most recent getPlay call.
+	 * @return whether the most recent move fell back
+	 */
+	public boolean isMoveFallback() {
+		return moveFallback;
+	}
+
+	/**
+	 * Get the total number of simulations performed.
+	 * @return number of simulations
+	 */
+	public long getSimulations() {
+		return simulations;
+	}
+
+	/**
+	 * Get the number of simulations performed by the most recent getPlay call.
+	 * @return number of simulations
+	 */
+	public long getMoveSimulations() {
+		return moveSimulations;
+	}
+
+	/**
+	 * Get the number of plays made, real or simulated, by the most recent getPlay call.
+	 * @return number of plays
+	 */
+	public long getMoveNodes() {
+		return moveNodes;
+	}
+
+	/**
+	 * Get the number of candidate plays considered by the most recent getPlay call.
+	 * @return number of candidate plays
+	 */
+	public int getMoveCandidates() {
+		return moveCandidates;
+	}
+}
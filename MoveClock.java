@@ -0,0 +1,37 @@
+/**
+ * MoveClock - the clock used to charge each move against a player's game time budget.
+ */
+public enum MoveClock {
+
+	/**
+	 * elapsed wall-clock time, as in the original harness
+	 */
+	WALL,
+	/**
+	 * CPU time of the thread calling getPlay, so that a player is not charged for time its thread spends descheduled
+	 * while other tournament threads use the core.  Time spent by any other threads of the player is not charged.
+	 */
+	CPU,
+	/**
+	 * elapsed wall-clock time less the overlap with stop-the-world garbage collection pauses
+	 */
+	WALL_MINUS_GC;
+
+	/**
+	 * Get the nanoseconds charged for a move.
+	 * @param wallNanos elapsed wall-clock nanoseconds of the move
+	 * @param cpuNanos CPU nanoseconds of the calling thread during the move
+	 * @param gcNanos nanoseconds of garbage collection pauses overlapping the move
+	 * @return nanoseconds charged against the player's time budget
+	 */
+	public long getChargedNanos(long wallNanos, long cpuNanos, long gcNanos) {
+		switch (this) {
+		case CPU:
+			return cpuNanos;
+		case WALL_MINUS_GC:
+			return Math.max(0, wallNanos - gcNanos);
+		default:
+			return wallNanos;
+		}
+	}
+}
@@ -0,0 +1,339 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * MoveMetrics - thread-safe per-turn move metrics recorded by the PokerSquares harness: a latency histogram for each
+ * turn index, the smallest game time remaining after a move, deadline overruns, and the simulations, nodes,
+ * candidate plays, rollout depths and fallbacks reported by players that implement SearchStatsProvider.  Recording a
+ * move costs a handful of atomic array updates, so metrics can be left on in tournaments.  Metrics can be exposed as a
+ * JMX MBean and dumped periodically as text.
+ *
+ * Latencies are kept in log-linear buckets of microseconds with SUB_BUCKETS buckets per power of two, so percentiles
+ * are reported to within 1/SUB_BUCKETS of their value.
+ */
+public class MoveMetrics implements MoveMetricsMXBean {
+
+	private static final int NUM_TURNS = PokerSquares.SIZE * PokerSquares.SIZE; // number of turns per game
+	private static final int SUB_BITS = 3; // log2 of the number of buckets per power of two
+	private static final int SUB_BUCKETS = 1 << SUB_BITS; // number of buckets per power of two
+	private static final int NUM_BUCKETS = SUB_BUCKETS * 40; // enough buckets for latencies of about 2^41 microseconds
+	private final AtomicLongArray histograms = new AtomicLongArray(NUM_TURNS * NUM_BUCKETS); // counts by turn, bucket
+	private final AtomicLongArray moves = new AtomicLongArray(NUM_TURNS); // moves by turn
+	private final AtomicLongArray overruns = new AtomicLongArray(NUM_TURNS); // deadline overruns by turn
+	private final AtomicLongArray latencyNanos = new AtomicLongArray(NUM_TURNS); // total latency by turn
+	private final AtomicLongArray maxLatencyNanos = new AtomicLongArray(NUM_TURNS); // maximum latency by turn
+	private final AtomicLongArray minSlackNanos = new AtomicLongArray(NUM_TURNS); // minimum slack by turn
+	private final AtomicLongArray statsMoves = new AtomicLongArray(NUM_TURNS); // moves with search statistics by turn
+	private final AtomicLongArray simulations = new AtomicLongArray(NUM_TURNS); // total simulations by turn
+	private final AtomicLongArray nodes = new AtomicLongArray(NUM_TURNS); // total nodes by turn
+	private final AtomicLongArray candidates = new AtomicLongArray(NUM_TURNS); // total candidate plays by turn
+	private final AtomicLongArray depths = new AtomicLongArray(NUM_TURNS); // total rollout depth limits by turn
+	private final AtomicLongArray fallbacks = new AtomicLongArray(NUM_TURNS); // player fallback moves by turn
+	private ScheduledExecutorService dumpExecutor; // periodic dump thread, or null
+
+	/**
+	 * Create empty move metrics.
+	 */
+	public MoveMetrics() {
+		reset();
+	}
+
+	/**
+	 * Record one move.
+	 * @param turn turn index (0 for the first card)
+	 * @param nanos wall-clock nanoseconds taken by getPlay
+	 * @param slackNanos nanoseconds of game time remaining after the move (negative if the move overran the deadline)
+	 * @param player player that made the move
+	 */
+	public void record(int turn, long nanos, long slackNanos, PokerSquaresPlayer player) {
+		histograms.incrementAndGet(turn * NUM_BUCKETS + getBucket(nanos / 1000));
+		moves.incrementAndGet(turn);
+		latencyNanos.addAndGet(turn, nanos);
+		if (slackNanos < 0)
+			overruns.incrementAndGet(turn);
+		for (long max = maxLatencyNanos.get(turn); nanos > max && !maxLatencyNanos.compareAndSet(turn, max, nanos);)
+			max = maxLatencyNanos.get(turn);
+		for (long min = minSlackNanos.get(turn); slackNanos < min && !minSlackNanos.compareAndSet(turn, min, slackNanos);)
+			min = minSlackNanos.get(turn);
+		if (player instanceof SearchStatsProvider) {
+			SearchStatsProvider stats = (SearchStatsProvider) player;
+			statsMoves.incrementAndGet(turn);
+			simulations.addAndGet(turn, stats.getMoveSimulations());
+			nodes.addAndGet(turn, stats.getMoveNodes());
+			candidates.addAndGet(turn, stats.getMoveCandidates());
+			depths.addAndGet(turn, stats.getMoveDepth());
+			if (stats.isMoveFallback())
+				fallbacks.incrementAndGet(turn);
+		}
+	}
+
+	/**
+	 * Get the histogram bucket of a latency.
+	 * @param micros latency in microseconds
+	 * @return bucket index
+	 */
+	private static int getBucket(long micros) {
+		if (micros < SUB_BUCKETS)
+			return (int) Math.max(0, micros);
+		int msb = 63 - Long.numberOfLeadingZeros(micros);
+		int bucket = (msb - SUB_BITS + 1) * SUB_BUCKETS + (int) ((micros >>> (msb - SUB_BITS)) & (SUB_BUCKETS - 1));
+		return Math.min(NUM_BUCKETS - 1, bucket);
+	}
+
+	/**
+	 * Get the smallest latency of a histogram bucket.
+	 * @param bucket bucket index
+	 * @return lower bound of the bucket in microseconds
+	 */
+	private static long getBucketMicros(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+		int msb = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (msb - SUB_BITS);
+	}
+
+	/**
+	 * Get a latency percentile over a range of turns.
+	 * @param fromTurn first turn index
+	 * @param toTurn last turn index
+	 * @param percentile percentile between 0 and 100
+	 * @return latency percentile in milliseconds (the lower bound of its bucket), or 0 if no moves were recorded
+	 */
+	private double getPercentileMillis(int fromTurn, int toTurn, double percentile) {
+		long[] counts = new long[NUM_BUCKETS];
+		long total = 0;
+		for (int turn = fromTurn; turn <= toTurn; turn++)
+			for (int b = 0; b < NUM_BUCKETS; b++) {
+				long count = histograms.get(turn * NUM_BUCKETS + b);
+				counts[b] += count;
+				total += count;
+			}
+		long rank = (long) Math.ceil(percentile / 100 * total);
+		long seen = 0;
+		for (int b = 0; b < NUM_BUCKETS; b++) {
+			seen += counts[b];
+			if (seen > 0 && seen >= rank)
+				return getBucketMicros(b) / 1e3;
+		}
+		return 0;
+	}
+
+	/**
+	 * Sum an array over all turns.
+	 * @param values values by turn
+	 * @return total
+	 */
+	private static long sum(AtomicLongArray values) {
+		long total = 0;
+		for (int turn = 0; turn < NUM_TURNS; turn++)
+			total += values.get(turn);
+		return total;
+	}
+
+	/* (non-Javadoc)
+	 * @see MoveMetricsMXBean#getMoves()
+	 */
+	@Override
+	public long getMoves() {
+		return sum(moves);
+	}
+
+	/* (non-Javadoc)
+	 * @see MoveMetricsMXBean#getOverruns()
+	 */
+	@Override
+	public long getOverruns() {
+		return sum(overruns);
+	}
+
+	/* (non-Javadoc)
+	 * @see MoveMetricsMXBean#getFallbacks()
+	 */
+	@Override
+	public long getFallbacks() {
+		return sum(fallbacks);
+	}
+
+	/* (non-Javadoc)
+	 * @see MoveMetricsMXBean#getMeanLatencyMillis()
+	 */
+	@Override
+	public double getMeanLatencyMillis() {
+		long count = getMoves();
+		return count == 0 ? 0 : sum(latencyNanos) / 1e6 / count;
+	}
+
+	/* (non-Javadoc)
+	 * @see MoveMetricsMXBean#getLatencyMillisP50()
+	 */
+	@Override
+	public double getLatencyMillisP50() {
+		return getPercentileMillis(0, NUM_TURNS - 1, 50);
+	}
+
+	/* (non-Javadoc)
+	 * @see MoveMetricsMXBean#getLatencyMillisP99()
+	 */
+	@Override
+	public double getLatencyMillisP99() {
+		return getPercentileMillis(0, NUM_TURNS - 1, 99);
+	}
+
+	/* (non-Javadoc)
+	 * @see MoveMetricsMXBean#getMaxLatencyMillis()
+	 */
+	@Override
+	public double getMaxLatencyMillis() {
+		long max = 0;
+		for (int turn = 0; turn < NUM_TURNS; turn++)
+			max = Math.max(max, maxLatencyNanos.get(turn));
+		return max / 1e6;
+	}
+
+	/* (non-Javadoc)
+	 * @see MoveMetricsMXBean#getMinSlackMillis()
+	 */
+	@Override
+	public double getMinSlackMillis() {
+		long min = Long.MAX_VALUE;
+		for (int turn = 0; turn < NUM_TURNS; turn++)
+			if (moves.get(turn) > 0)
+				min = Math.min(min, minSlackNanos.get(turn));
+		return min == Long.MAX_VALUE ? 0 : min / 1e6;
+	}
+
+	/* (non-Javadoc)
+	 * @see MoveMetricsMXBean#getMeanSimulationsPerMove()
+	 */
+	@Override
+	public double getMeanSimulationsPerMove() {
+		long count = sum(statsMoves);
+		return count == 0 ? 0 : (double) sum(simulations) / count;
+	}
+
+	/* (non-Javadoc)
+	 * @see MoveMetricsMXBean#getMeanNodesPerMove()
+	 */
+	@Override
+	public double getMeanNodesPerMove() {
+		long count = sum(statsMoves);
+		return count == 0 ? 0 : (double) sum(nodes) / count;
+	}
+
+	/* (non-Javadoc)
+	 * @see MoveMetricsMXBean#getMeanCandidatesPerMove()
+	 */
+	@Override
+	public double getMeanCandidatesPerMove() {
+		long count = sum(statsMoves);
+		return count == 0 ? 0 : (double) sum(candidates) / count;
+	}
+
+	/* (non-Javadoc)
+	 * @see MoveMetricsMXBean#getLatencyPercentileMillis(int, double)
+	 */
+	@Override
+	public double getLatencyPercentileMillis(int turn, double percentile) {
+		return getPercentileMillis(turn, turn, percentile);
+	}
+
+	/* (non-Javadoc)
+	 * @see MoveMetricsMXBean#dump()
+	 */
+	@Override
+	public String dump() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%4s %8s %9s %9s %9s %9s %9s %11s %11s %6s %6s %9s %8s%n", "Turn", "Moves", "Mean ms",
+				"P50 ms", "P99 ms", "Max ms", "Slack ms", "Sims/Move", "Nodes/Move", "Cands", "Depth", "Fallbacks",
+				"Overruns"));
+		for (int turn = 0; turn < NUM_TURNS; turn++) {
+			long count = moves.get(turn);
+			if (count == 0)
+				continue;
+			long statsCount = Math.max(1, statsMoves.get(turn));
+			sb.append(String.format("%4d %8d %9.3f %9.3f %9.3f %9.3f %9.1f %11.0f %11.0f %6.1f %6.2f %9d %8d%n", turn, count,
+					latencyNanos.get(turn) / 1e6 / count, getPercentileMillis(turn, turn, 50),
+					getPercentileMillis(turn, turn, 99), maxLatencyNanos.get(turn) / 1e6, minSlackNanos.get(turn) / 1e6,
+					(double) simulations.get(turn) / statsCount, (double) nodes.get(turn) / statsCount,
+					(double) candidates.get(turn) / statsCount, (double) depths.get(turn) / statsCount,
+					fallbacks.get(turn), overruns.get(turn)));
+		}
+		sb.append(String.format("All: %d moves, mean %.3f ms, P50 %.3f ms, P99 %.3f ms, max %.3f ms, min slack %.1f ms, "
+				+ "%d fallbacks, %d overruns%n", getMoves(), getMeanLatencyMillis(), getLatencyMillisP50(),
+				getLatencyMillisP99(), getMaxLatencyMillis(), getMinSlackMillis(), getFallbacks(), getOverruns()));
+		return sb.toString();
+	}
+
+	/* (non-Javadoc)
+	 * @see MoveMetricsMXBean#reset()
+	 */
+	@Override
+	public void reset() {
+		for (int i = 0; i < histograms.length(); i++)
+			histograms.set(i, 0);
+		for (int turn = 0; turn < NUM_TURNS; turn++) {
+			moves.set(turn, 0);
+			overruns.set(turn, 0);
+			latencyNanos.set(turn, 0);
+			maxLatencyNanos.set(turn, 0);
+			minSlackNanos.set(turn, Long.MAX_VALUE);
+			statsMoves.set(turn, 0);
+			simulations.set(turn, 0);
+			nodes.set(turn, 0);
+			candidates.set(turn, 0);
+			depths.set(turn, 0);
+			fallbacks.set(turn, 0);
+		}
+	}
+
+	/**
+	 * Register these metrics with the platform MBean server under the name PokerSquares:type=MoveMetrics,name=name.
+	 * @param name name distinguishing these metrics from others
+	 * @throws JMException if the metrics cannot be registered
+	 */
+	public void register(String name) throws JMException {
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+				new ObjectName("PokerSquares:type=MoveMetrics,name=" + ObjectName.quote(name)));
+	}
+
+	/**
+	 * Print the text dump of these metrics periodically on a daemon thread, replacing any earlier periodic dump.
+	 * @param periodMillis milliseconds between dumps
+	 * @param out destination of the dumps
+	 */
+	public synchronized void startPeriodicDump(long periodMillis, final PrintStream out) {
+		stopPeriodicDump();
+		dumpExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "MoveMetrics dump");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		dumpExecutor.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				out.print(dump());
+			}
+		}, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stop the periodic text dump, if any.
+	 */
+	public synchronized void stopPeriodicDump() {
+		if (dumpExecutor != null) {
+			dumpExecutor.shutdownNow();
+			dumpExecutor = null;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/**
+ * MoveMetricsMXBean - the JMX management interface of MoveMetrics.  Latencies are wall-clock getPlay times and slack
+ * is the game time remaining after a move.
+ */
+public interface MoveMetricsMXBean {
+
+	/**
+	 * Get the number of moves recorded.
+	 * @return number of moves
+	 */
+	long getMoves();
+
+	/**
+	 * Get the number of moves that ran past the game deadline.
+	 * @return number of overrunning moves
+	 */
+	long getOverruns();
+
+	/**
+	 * Get the number of moves on which the player's hard deadline fired and it returned a fallback play.
+	 * @return number of fallback moves
+	 */
+	long getFallbacks();
+
+	/**
+	 * Get the mean move latency.
+	 * @return mean latency in milliseconds
+	 */
+	double getMeanLatencyMillis();
+
+	/**
+	 * Get the median move latency.
+	 * @return median latency in milliseconds
+	 */
+	double getLatencyMillisP50();
+
+	/**
+	 * Get the 99th percentile move latency.
+	 * @return 99th percentile latency in milliseconds
+	 */
+	double getLatencyMillisP99();
+
+	/**
+	 * Get the maximum move latency.
+	 * @return maximum latency in milliseconds
+	 */
+	double getMaxLatencyMillis();
+
+	/**
+	 * Get the smallest game time remaining after any move.
+	 * @return minimum slack in milliseconds
+	 */
+	double getMinSlackMillis();
+
+	/**
+	 * Get the mean number of simulations per move of players that report search statistics.
+	 * @return mean simulations per move
+	 */
+	double getMeanSimulationsPerMove();
+
+	/**
+	 * Get the mean number of search nodes per move of players that report search statistics.
+	 * @return mean nodes per move
+	 */
+	double getMeanNodesPerMove();
+
+	/**
+	 * Get the mean number of candidate plays per move of players that report search statistics.
+	 * @return mean candidate plays per move
+	 */
+	double getMeanCandidatesPerMove();
+
+	/**
+	 * Get a latency percentile of the moves at one turn index.
+	 * @param turn turn index (0 for the first card)
+	 * @param percentile percentile between 0 and 100
+	 * @return latency percentile in milliseconds
+	 */
+	double getLatencyPercentileMillis(int turn, double percentile);
+
+	/**
+	 * Get a per-turn text table of the metrics.
+	 * @return text table
+	 */
+	String dump();
+
+	/**
+	 * Clear all recorded metrics.
+	 */
+	void reset();
+}
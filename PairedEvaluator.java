@@ -0,0 +1,121 @@
+/**
+ * PairedEvaluator - compares two players on identical deals with a sequential probability ratio test (SPRT) on their
+ * paired score differences, stopping as soon as the requested confidence is reached.
+ *
+ * Each pair of games deals the same seed to both players, so the variance of the deal cancels out of the difference
+ * D = score(A) - score(B).  Taking D as normal with the sample variance s^2, the test weighs H1: mean(D) = +delta
+ * (A better) against H0: mean(D) = -delta (B better), with log-likelihood ratio 2 * delta * sum(D) / s^2.  The test
+ * stops for A when it reaches log((1 - beta) / alpha), for B when it falls to log(beta / (1 - alpha)), or undecided at
+ * the maximum number of pairs.  delta is the smallest difference in mean score worth detecting; differences within
+ * (-delta, delta) may be decided either way.
+ */
+public class PairedEvaluator {
+
+	private static final int MIN_PAIRS = 10; // pairs played before the variance estimate is trusted
+
+	/**
+	 * Result - the outcome of a paired evaluation.
+	 */
+	public static class Result {
+		/**
+		 * +1 if A was found better, -1 if B was found better, 0 if undecided
+		 */
+		public final int decision;
+		/**
+		 * summary of the paired score differences A - B
+		 */
+		public final ScoreSummary differences;
+		/**
+		 * log-likelihood ratio of the test when it stopped
+		 */
+		public final double logLikelihoodRatio;
+
+		/**
+		 * Create a result.
+		 * @param decision +1 if A was found better, -1 if B was found better, 0 if undecided
+		 * @param differences summary of the paired score differences A - B
+		 * @param logLikelihoodRatio log-likelihood ratio of the test when it stopped
+		 */
+		public Result(int decision, ScoreSummary differences, double logLikelihoodRatio) {
+			this.decision = decision;
+			this.differences = differences;
+			this.logLikelihoodRatio = logLikelihoodRatio;
+		}
+	}
+
+	/**
+	 * Compare two players on paired deals with seeds startSeed, startSeed + 1, ... until the test decides or maxPairs
+	 * pairs have been played.
+	 * @param playerA first player
+	 * @param playerB second player
+	 * @param system point system
+	 * @param gameMillis game time budget in milliseconds
+	 * @param delta smallest difference in mean score worth detecting (positive)
+	 * @param alpha probability of deciding for A when B is better by delta
+	 * @param beta probability of deciding for B when A is better by delta
+	 * @param maxPairs maximum number of pairs of games
+	 * @param startSeed seed of the first pair
+	 * @param verbose whether to print the running test after each pair
+	 * @return result of the comparison
+	 */
+	public static Result evaluate(PokerSquaresPlayer playerA, PokerSquaresPlayer playerB, PokerSquaresPointSystem system,
+			long gameMillis, double delta, double alpha, double beta, int maxPairs, long startSeed, boolean verbose) {
+		double upper = Math.log((1 - beta) / alpha);
+		double lower = Math.log(beta / (1 - alpha));
+		PokerSquares gameA = new PokerSquares(playerA, system);
+		PokerSquares gameB = new PokerSquares(playerB, system);
+		for (PokerSquares game : new PokerSquares[] {gameA, gameB}) {
+			game.setVerbose(false);
+			game.setGameMillis(gameMillis);
+		}
+		PokerSquares.warmUp(playerA);
+		PokerSquares.warmUp(playerB);
+		ScoreSummary differences = new ScoreSummary();
+		double llr = 0;
+		for (int pair = 0; pair < maxPairs; pair++) {
+			long seed = startSeed + pair;
+			differences.add(gameA.play(seed) - gameB.play(seed));
+			if (differences.getCount() < MIN_PAIRS)
+				continue;
+			double variance = Math.pow(differences.getStandardError(), 2) * differences.getCount();
+			llr = 2 * delta * differences.getMean() * differences.getCount() / Math.max(variance, 1e-9);
+			if (verbose)
+				System.out.printf("Pairs: %d, mean difference: %.3f, standard error: %.3f, LLR: %.3f (%.3f, %.3f)%n",
+						differences.getCount(), differences.getMean(), differences.getStandardError(), llr, lower, upper);
+			if (llr >= upper)
+				return new Result(1, differences, llr);
+			if (llr <= lower)
+				return new Result(-1, differences, llr);
+		}
+		return new Result(0, differences, llr);
+	}
+
+	/**
+	 * Compare two players by class name with the British point system.
+	 * @param args player A class name, player B class name, and optionally delta (default 1.0), alpha and beta (default
+	 * 0.05), maximum pairs (default 1000) and game milliseconds (default PokerSquares.GAME_MILLIS)
+	 * @throws ReflectiveOperationException if a player class cannot be instantiated
+	 */
+	public static void main(String[] args) throws ReflectiveOperationException {
+		if (args.length < 2) {
+			System.err.println("Usage: java PairedEvaluator <player A class> <player B class> [delta] [alpha] [beta] "
+					+ "[max pairs] [game millis]");
+			return;
+		}
+		PokerSquaresPlayer playerA = (PokerSquaresPlayer) Class.forName(args[0]).getDeclaredConstructor().newInstance();
+		PokerSquaresPlayer playerB = (PokerSquaresPlayer) Class.forName(args[1]).getDeclaredConstructor().newInstance();
+		double delta = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+		double alpha = args.length > 3 ? Double.parseDouble(args[3]) : 0.05;
+		double beta = args.length > 4 ? Double.parseDouble(args[4]) : 0.05;
+		int maxPairs = args.length > 5 ? Integer.parseInt(args[5]) : 1000;
+		long gameMillis = args.length > 6 ? Long.parseLong(args[6]) : PokerSquares.GAME_MILLIS;
+
+		Result result = evaluate(playerA, playerB, PokerSquaresPointSystem.getBritishPointSystem(), gameMillis, delta,
+				alpha, beta, maxPairs, 0L, true);
+		ScoreSummary d = result.differences;
+		String winner = result.decision > 0 ? playerA.getName() : result.decision < 0 ? playerB.getName() : "undecided";
+		System.out.printf("%s - %s: mean difference %.3f (95%% CI %.3f to %.3f) over %d pairs; decision: %s%n",
+				playerA.getName(), playerB.getName(), d.getMean(), d.getMean() - 1.96 * d.getStandardError(),
+				d.getMean() + 1.96 * d.getStandardError(), d.getCount(), winner);
+	}
+}
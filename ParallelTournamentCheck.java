@@ -0,0 +1,243 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * ParallelTournamentCheck - checks that PokerSquares.playParallelTournament produces exactly the same tournament
+ * scores as the sequential PokerSquares.playTournament, also when dealing from a deal file, and that a failed game
+ * (including one whose seed the deal file lacks) fails the parallel tournament instead of being scored.
+ *
+ * The players place cards deterministically given the deal, so the scores of a game depend on its seed alone and not
+ * on timing or on which thread or player instance plays it.
+ */
+public class ParallelTournamentCheck {
+
+	private static final int SIZE = PokerSquares.SIZE; // number of rows and columns
+
+	/**
+	 * FirstEmptyPlayer - places each card at the first empty position in row-major order.
+	 */
+	static class FirstEmptyPlayer implements PokerSquaresPlayer {
+		private final boolean[] filled = new boolean[SIZE * SIZE]; // whether each row-major position is filled
+
+		@Override
+		public void setPointSystem(PokerSquaresPointSystem system, long millis) {
+		}
+
+		@Override
+		public void init() {
+			Arrays.fill(filled, false);
+		}
+
+		@Override
+		public int[] getPlay(Card card, long millisRemaining) {
+			int pos = choosePosition(card);
+			filled[pos] = true;
+			return new int[] {pos / SIZE, pos % SIZE};
+		}
+
+		/**
+		 * Choose the position of a card.
+		 * @param card card to place
+		 * @return row-major index of an empty position
+		 */
+		int choosePosition(Card card) {
+			int pos = 0;
+			while (filled[pos])
+				pos++;
+			return pos;
+		}
+
+		/**
+		 * Return whether a position is filled.
+		 * @param pos row-major position
+		 * @return whether a card has been placed there
+		 */
+		boolean isFilled(int pos) {
+			return filled[pos];
+		}
+
+		@Override
+		public String getName() {
+			return "FirstEmptyPlayer";
+		}
+	}
+
+	/**
+	 * SuitColumnPlayer - places each card in the first empty row of the column of its suit, or else at the first empty
+	 * position.
+	 */
+	static class SuitColumnPlayer extends FirstEmptyPlayer {
+
+		@Override
+		int choosePosition(Card card) {
+			for (int row = 0; row < SIZE; row++)
+				if (!isFilled(row * SIZE + card.getSuit()))
+					return row * SIZE + card.getSuit();
+			return super.choosePosition(card);
+		}
+
+		@Override
+		public String getName() {
+			return "SuitColumnPlayer";
+		}
+	}
+
+	/**
+	 * RankRowPlayer - places each card in the first empty column of the row of its rank modulo the grid size, or else
+	 * at the first empty position.
+	 */
+	static class RankRowPlayer extends FirstEmptyPlayer {
+
+		@Override
+		int choosePosition(Card card) {
+			int row = card.getRank() % SIZE;
+			for (int col = 0; col < SIZE; col++)
+				if (!isFilled(row * SIZE + col))
+					return row * SIZE + col;
+			return super.choosePosition(card);
+		}
+
+		@Override
+		public String getName() {
+			return "RankRowPlayer";
+		}
+	}
+
+	/**
+	 * Get factories of the checked players, three so that the normalized scores are not just 0 and 1.
+	 * @return player factories
+	 */
+	static ArrayList<Supplier<PokerSquaresPlayer>> getFactories() {
+		ArrayList<Supplier<PokerSquaresPlayer>> factories = new ArrayList<Supplier<PokerSquaresPlayer>>();
+		factories.add(new Supplier<PokerSquaresPlayer>() {
+			@Override
+			public PokerSquaresPlayer get() {
+				return new FirstEmptyPlayer();
+			}
+		});
+		factories.add(new Supplier<PokerSquaresPlayer>() {
+			@Override
+			public PokerSquaresPlayer get() {
+				return new SuitColumnPlayer();
+			}
+		});
+		factories.add(new Supplier<PokerSquaresPlayer>() {
+			@Override
+			public PokerSquaresPlayer get() {
+				return new RankRowPlayer();
+			}
+		});
+		return factories;
+	}
+
+	/**
+	 * Play the sequential and parallel tournaments and compare their tournament scores.
+	 * @param systems point systems
+	 * @param gamesPerSystem games per player and point system
+	 * @param numThreads maximum number of parallel games
+	 * @return whether the tournament scores are identical
+	 */
+	static boolean checkScores(ArrayList<PokerSquaresPointSystem> systems, int gamesPerSystem, int numThreads) {
+		ArrayList<Supplier<PokerSquaresPlayer>> factories = getFactories();
+		ArrayList<PokerSquaresPlayer> players = new ArrayList<PokerSquaresPlayer>();
+		for (Supplier<PokerSquaresPlayer> factory : factories)
+			players.add(factory.get());
+		double[] sequential = PokerSquares.playTournament(players, systems, gamesPerSystem, 0L);
+		double[] parallel = PokerSquares.playParallelTournament(factories, systems, gamesPerSystem, 0L, numThreads);
+		return Arrays.equals(sequential, parallel);
+	}
+
+	/**
+	 * Play a parallel tournament in which the harness fails to set up a game, and check that it throws.
+	 * @param systems point systems
+	 * @param numThreads maximum number of parallel games
+	 * @return whether the tournament threw instead of reporting scores
+	 */
+	static boolean checkFailure(ArrayList<PokerSquaresPointSystem> systems, int numThreads) {
+		ArrayList<Supplier<PokerSquaresPlayer>> factories = getFactories();
+		factories.add(new Supplier<PokerSquaresPlayer>() {
+			private int created = 0; // players created, the first only for warm-up
+
+			@Override
+			public synchronized PokerSquaresPlayer get() {
+				if (++created == 3)
+					throw new IllegalStateException("Player factory failed");
+				return new FirstEmptyPlayer();
+			}
+		});
+		try {
+			PokerSquares.playParallelTournament(factories, systems, 5, 0L, numThreads);
+			return false;
+		} catch (IllegalStateException e) {
+			System.out.println("Failed tournament threw: " + e.getMessage() + ": " + e.getCause().getMessage());
+			return true;
+		}
+	}
+
+	/**
+	 * Play parallel tournaments dealt from deal files, one holding the deals of all seeds played and one lacking the
+	 * last, and compare them with the sequential tournament on generated deals.
+	 * @param systems point systems
+	 * @param gamesPerSystem games per player and point system
+	 * @param numThreads maximum number of parallel games
+	 * @return whether the complete file gave identical tournament scores and the incomplete one made the tournament throw
+	 * @throws IOException if a deal file cannot be written
+	 */
+	static boolean checkDealFile(ArrayList<PokerSquaresPointSystem> systems, int gamesPerSystem, int numThreads)
+			throws IOException {
+		ArrayList<Supplier<PokerSquaresPlayer>> factories = getFactories();
+		ArrayList<PokerSquaresPlayer> players = new ArrayList<PokerSquaresPlayer>();
+		for (Supplier<PokerSquaresPlayer> factory : factories)
+			players.add(factory.get());
+		File complete = File.createTempFile("deals", ".bin");
+		File incomplete = File.createTempFile("deals", ".bin");
+		try {
+			DealService.write(complete.getPath(), 0L, gamesPerSystem);
+			DealService.write(incomplete.getPath(), 0L, gamesPerSystem - 1);
+			double[] sequential = PokerSquares.playTournament(players, systems, gamesPerSystem, 0L);
+			double[] parallel = PokerSquares.playParallelTournament(factories, systems, gamesPerSystem, 0L, numThreads,
+					null, MoveClock.WALL, new DealService(complete.getPath()));
+			if (!Arrays.equals(sequential, parallel)) {
+				System.out.println("Parallel tournament scores from a deal file differ");
+				return false;
+			}
+			try {
+				PokerSquares.playParallelTournament(factories, systems, gamesPerSystem, 0L, numThreads, null,
+						MoveClock.WALL, new DealService(incomplete.getPath()));
+				System.out.println("Tournament with missing deals reported scores");
+				return false;
+			} catch (IllegalStateException e) {
+				System.out.println("Tournament with missing deals threw: " + e.getCause().getMessage());
+				return true;
+			}
+		} finally {
+			complete.delete();
+			incomplete.delete();
+		}
+	}
+
+	/**
+	 * Run the checks.
+	 * @param args optional number of games per player and point system (default 50) and number of threads (default 4)
+	 * @throws IOException if a deal file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		int gamesPerSystem = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+		int numThreads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		ArrayList<PokerSquaresPointSystem> systems = new ArrayList<PokerSquaresPointSystem>();
+		systems.add(PokerSquaresPointSystem.getBritishPointSystem());
+		systems.add(PokerSquaresPointSystem.getAmericanPointSystem());
+		boolean same = checkScores(systems, gamesPerSystem, numThreads);
+		System.out.println(same ? "Sequential and parallel tournament scores are identical"
+				: "Sequential and parallel tournament scores differ");
+		boolean failed = checkFailure(systems, numThreads);
+		if (!failed)
+			System.out.println("Failed tournament reported scores");
+		boolean dealFile = checkDealFile(systems, gamesPerSystem, numThreads);
+		if (!same || !failed || !dealFile)
+			System.exit(1);
+	}
+}
@@ -0,0 +1,131 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * PlayBookkeepingCheck - checks and measures the constant-time card and position bookkeeping of the Monte Carlo
+ * players.  Each player keeps its undealt cards (simDeck) and empty positions (plays) from index numPlays onward,
+ * with inverse slot arrays so that makePlay finds a card or position without a linear search.
+ *
+ * The check drives each player through long random sequences of makePlay and undoPlay calls, with occasional init
+ * calls, and verifies the bookkeeping invariants after every call.  The benchmark then plays games with a fixed time
+ * budget and reports the simulations (rollouts) per second of each player.
+ */
+public class PlayBookkeepingCheck {
+
+	private static final int SIZE = PokerSquares.SIZE; // number of rows and columns
+	private static final int NUM_POS = SIZE * SIZE; // number of positions in the grid
+
+	/**
+	 * Make random plays and undo them on a player, checking its bookkeeping after every call.
+	 * @param player MonteCarloPlayer
+	 * @param steps number of calls
+	 * @param random pseudorandom number generator
+	 * @return number of calls after which the bookkeeping was inconsistent
+	 */
+	static int check(PokerSquaresPlayer player, int steps, Random random) {
+		ArrayList<Integer> emptyPositions = new ArrayList<Integer>();
+		ArrayList<Card> undealtCards = new ArrayList<Card>();
+		ArrayList<int[]> madePlays = new ArrayList<int[]>(); // card id and position of each play made
+		int failures = 0;
+		for (int step = 0; step < steps; step++) {
+			if (step == 0 || random.nextInt(200) == 0) { // start a new game
+				player.init();
+				madePlays.clear();
+				emptyPositions.clear();
+				for (int pos = 0; pos < NUM_POS; pos++)
+					emptyPositions.add(pos);
+				undealtCards.clear();
+				for (Card card : Card.getAllCards())
+					undealtCards.add(card);
+			}
+			else if (!madePlays.isEmpty() && (emptyPositions.isEmpty() || random.nextInt(5) < 2)) {
+				int[] play = madePlays.remove(madePlays.size() - 1);
+				undoPlay(player);
+				undealtCards.add(Card.getCard(play[0]));
+				emptyPositions.add(play[1]);
+			}
+			else {
+				Card card = undealtCards.remove(random.nextInt(undealtCards.size()));
+				int pos = emptyPositions.remove(random.nextInt(emptyPositions.size()));
+				makePlay(player, card, pos / SIZE, pos % SIZE);
+				madePlays.add(new int[] {card.getCardId(), pos});
+			}
+			if (!isConsistent(player))
+				failures++;
+		}
+		return failures;
+	}
+
+	/**
+	 * Make a play on a player.
+	 * @param player MonteCarloPlayer
+	 * @param card card played
+	 * @param row row of the play
+	 * @param col column of the play
+	 */
+	private static void makePlay(PokerSquaresPlayer player, Card card, int row, int col) {
+		((MonteCarloPlayer) player).makePlay(card, row, col);
+	}
+
+	/**
+	 * Undo the most recent play of a player.
+	 * @param player MonteCarloPlayer
+	 */
+	private static void undoPlay(PokerSquaresPlayer player) {
+		((MonteCarloPlayer) player).undoPlay();
+	}
+
+	/**
+	 * Check the bookkeeping of a player.
+	 * @param player MonteCarloPlayer
+	 * @return whether the bookkeeping is consistent
+	 */
+	private static boolean isConsistent(PokerSquaresPlayer player) {
+		return ((MonteCarloPlayer) player).isConsistent();
+	}
+
+	/**
+	 * Play games with a fixed time budget and return the player's simulations per second of game time.
+	 * @param player MonteCarloPlayer
+	 * @param numGames number of games
+	 * @param gameMillis game time budget in milliseconds
+	 * @return simulations per second
+	 */
+	static double getSimulationsPerSecond(PokerSquaresPlayer player, int numGames, long gameMillis) {
+		PokerSquares game = new PokerSquares(player, PokerSquaresPointSystem.getBritishPointSystem());
+		game.setVerbose(false);
+		game.setGameMillis(gameMillis);
+		long startSimulations = ((SimulationCounter) player).getSimulations();
+		long start = System.nanoTime();
+		for (int seed = 0; seed < numGames; seed++) {
+			game.play(seed);
+			if (!isConsistent(player))
+				System.err.println("Inconsistent bookkeeping after game " + seed);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		return (((SimulationCounter) player).getSimulations() - startSimulations) / seconds;
+	}
+
+	/**
+	 * Run the check and the benchmark.
+	 * @param args optional number of random calls per player (default 1000000), benchmark games (default 5) and game
+	 * milliseconds (default 5000)
+	 */
+	public static void main(String[] args) {
+		int steps = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int numGames = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		long gameMillis = args.length > 2 ? Long.parseLong(args[2]) : 5000L;
+		Random random = new Random(0L);
+		int totalFailures = 0;
+		for (PokerSquaresPlayer player : new PokerSquaresPlayer[] {new RandomMCPlayer(), new JIsraelsonPlayer()}) {
+			int failures = check(player, steps, random);
+			totalFailures += failures;
+			System.out.printf("%-20s %d random calls, %d inconsistent%n", player.getName(), steps, failures);
+		}
+		for (PokerSquaresPlayer player : new PokerSquaresPlayer[] {new RandomMCPlayer(), new JIsraelsonPlayer()})
+			System.out.printf("%-20s %.0f simulations/s%n", player.getName(),
+					getSimulationsPerSecond(player, numGames, gameMillis));
+		if (totalFailures > 0)
+			System.exit(1);
+	}
+}
@@ -0,0 +1,56 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * PlayEvent - a Java Flight Recorder event spanning one getPlay call, with the search statistics of players that
+ * implement SearchStatsProvider.
+ */
+@Name("PokerSquares.Play")
+@Label("Play")
+@Category("Poker Squares")
+@Description("One getPlay call")
+@StackTrace(false)
+public class PlayEvent extends Event {
+
+	@Label("Player")
+	String player;
+
+	@Label("Turn")
+	@Description("Turn index, 0 for the first card")
+	int turn;
+
+	@Label("Candidates")
+	@Description("Candidate plays considered, if reported by the player")
+	int candidates;
+
+	@Label("Simulations")
+	@Description("Simulations performed, if reported by the player")
+	long simulations;
+
+	@Label("Nodes")
+	@Description("Plays made, real or simulated, if reported by the player")
+	long nodes;
+
+	@Label("Depth")
+	@Description("Rollout depth limit, if reported by the player")
+	int depth;
+
+	@Label("Fallback")
+	@Description("Whether the player's hard deadline fired, if reported by the player")
+	boolean fallback;
+
+	@Label("Time Remaining")
+	@Description("Game time remaining given to getPlay")
+	@Timespan(Timespan.MILLISECONDS)
+	long millisRemaining;
+
+	@Label("Time Charged")
+	@Description("Time charged against the game budget by the move clock")
+	@Timespan(Timespan.NANOSECONDS)
+	long chargedNanos;
+}
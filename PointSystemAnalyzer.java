@@ -0,0 +1,265 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PointSystemAnalyzer - precomputed properties of a point system for rollout policies and leaf evaluators, built once
+ * per point system in their setPointSystem: LineCompletionLeafEvaluator and LookaheadRolloutPolicy use its line
+ * completion table, and HandValueRolloutPolicy its hand, suited and pair values.
+ *
+ * From the exact line completion probabilities of LineCompletionTable, the analyzer computes the probability that a
+ * random line ends as each hand class, each class's expected score contribution, and the expected score of an empty
+ * line.  The value of a hand class is its score less the high card score, i.e. the gain of building that hand rather
+ * than a broken line.  Hand classes with positive value are ordered by priority (value, then probability), and classes
+ * with negative value are worth avoiding: under a hypercorner system scoring flushes -1 and high cards 1, for example,
+ * a line should be broken rather than completed as a flush.
+ *
+ * Two line-building values summarize this for two-card line starts: the suited value is the mean expected line score
+ * gained by keeping two distinct ranks in one suit rather than in two suits, and the pair value is the gain of a pair
+ * over two distinct unsuited ranks.  A negative suited value means that suits should be mixed in every line.
+ *
+ * Analyzers are cached by point system code, so that a search's leaf evaluator and rollout policy share one analyzer
+ * and its table.
+ */
+public class PointSystemAnalyzer {
+
+	private static final int SIZE = PokerSquares.SIZE;
+	private static final int NUM_HANDS = PokerHand.NUM_HANDS;
+	private static final int NUM_RANKS = Card.NUM_RANKS;
+	private static final int CACHE_SIZE = 16; // analyzers cached by point system code
+	private static final Map<String, PointSystemAnalyzer> cache = new LinkedHashMap<String, PointSystemAnalyzer>(
+			CACHE_SIZE, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, PointSystemAnalyzer> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+	private final PokerSquaresPointSystem system; // analyzed point system
+	private final LineCompletionTable lineTable; // expected final line scores
+	private final double[] handProbabilities; // probability that a random line ends as each hand class
+	private final double[] expectedContributions; // probability times score of each hand class
+	private final double expectedLineScore; // expected score of an empty line
+	private final int[] handValues; // score of each hand class less the high card score
+	private final int[] priorityOrder; // hand classes with positive value, most valuable first
+	private final double suitedValue; // mean gain of a suited two-card line start over an unsuited one
+	private final double pairValue; // mean gain of a paired two-card line start over an unpaired unsuited one
+
+	/**
+	 * Analyze a point system.  Use getAnalyzer to share analyzers.
+	 * @param system point system
+	 */
+	public PointSystemAnalyzer(PokerSquaresPointSystem system) {
+		this.system = system;
+		lineTable = new LineCompletionTable(system);
+		int[] scores = system.getScoreTable();
+		handProbabilities = LineCompletionTable.getHandProbabilities(new Card[SIZE]);
+		expectedContributions = new double[NUM_HANDS];
+		handValues = new int[NUM_HANDS];
+		double expected = 0;
+		int numValuable = 0;
+		for (int h = 0; h < NUM_HANDS; h++) {
+			expectedContributions[h] = handProbabilities[h] * scores[h];
+			expected += expectedContributions[h];
+			handValues[h] = scores[h] - scores[PokerHand.HIGH_CARD.id];
+			if (handValues[h] > 0)
+				numValuable++;
+		}
+		expectedLineScore = expected;
+
+		Integer[] order = new Integer[NUM_HANDS];
+		for (int h = 0; h < NUM_HANDS; h++)
+			order[h] = h;
+		Arrays.sort(order, new java.util.Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				if (handValues[a] != handValues[b])
+					return handValues[b] - handValues[a];
+				return Double.compare(handProbabilities[b], handProbabilities[a]);
+			}
+		});
+		priorityOrder = new int[numValuable];
+		for (int i = 0; i < numValuable; i++)
+			priorityOrder[i] = order[i];
+
+		// mean expected scores of two-card line starts over all pairs of ranks
+		Card[] line = new Card[SIZE];
+		double suited = 0, unsuited = 0, paired = 0;
+		int numUnpaired = 0;
+		for (int r1 = 0; r1 < NUM_RANKS; r1++) {
+			line[0] = Card.getCard(r1);
+			line[1] = Card.getCard(NUM_RANKS + r1); // same rank, another suit
+			paired += lineTable.getExpectedScore(line);
+			for (int r2 = r1 + 1; r2 < NUM_RANKS; r2++) {
+				line[1] = Card.getCard(r2);
+				suited += lineTable.getExpectedScore(line);
+				line[1] = Card.getCard(NUM_RANKS + r2);
+				unsuited += lineTable.getExpectedScore(line);
+				numUnpaired++;
+			}
+		}
+		suitedValue = (suited - unsuited) / numUnpaired;
+		pairValue = paired / NUM_RANKS - unsuited / numUnpaired;
+	}
+
+	/**
+	 * Get the shared analyzer of a point system, analyzing it on first use.
+	 * @param system point system
+	 * @return analyzer of the point system
+	 */
+	public static PointSystemAnalyzer getAnalyzer(PokerSquaresPointSystem system) {
+		String code = system.getCode();
+		synchronized (cache) {
+			PointSystemAnalyzer analyzer = cache.get(code);
+			if (analyzer == null) {
+				analyzer = new PointSystemAnalyzer(system);
+				cache.put(code, analyzer);
+			}
+			return analyzer;
+		}
+	}
+
+	/**
+	 * Get the analyzed point system.
+	 * @return point system
+	 */
+	public PokerSquaresPointSystem getPointSystem() {
+		return system;
+	}
+
+	/**
+	 * Get the table of expected final line scores under the point system.
+	 * @return line completion table
+	 */
+	public LineCompletionTable getLineTable() {
+		return lineTable;
+	}
+
+	/**
+	 * Get the probability that a line of random cards ends as a hand class.
+	 * @param handId hand class identification number
+	 * @return probability of the hand class
+	 */
+	public double getHandProbability(int handId) {
+		return handProbabilities[handId];
+	}
+
+	/**
+	 * Get the expected score contribution of a hand class to a line of random cards.
+	 * @param handId hand class identification number
+	 * @return probability times score of the hand class
+	 */
+	public double getExpectedContribution(int handId) {
+		return expectedContributions[handId];
+	}
+
+	/**
+	 * Get the expected score of a line of random cards.
+	 * @return expected score of an empty line
+	 */
+	public double getExpectedLineScore() {
+		return expectedLineScore;
+	}
+
+	/**
+	 * Get the value of a hand class: its score less the high card score.
+	 * @param handId hand class identification number
+	 * @return value of the hand class
+	 */
+	public int getHandValue(int handId) {
+		return handValues[handId];
+	}
+
+	/**
+	 * Return whether a hand class is worth avoiding, i.e. scores less than a broken line.
+	 * @param handId hand class identification number
+	 * @return whether the hand class has negative value
+	 */
+	public boolean isAvoided(int handId) {
+		return handValues[handId] < 0;
+	}
+
+	/**
+	 * Get the hand classes worth building, most valuable first, breaking ties in favor of the more probable class.
+	 * @return hand class identification numbers with positive value
+	 */
+	public int[] getPriorityOrder() {
+		return priorityOrder.clone();
+	}
+
+	/**
+	 * Get the mean gain in expected line score of a suited two-card line start over an unsuited one.
+	 * @return suited value, negative if suits should be mixed
+	 */
+	public double getSuitedValue() {
+		return suitedValue;
+	}
+
+	/**
+	 * Get the mean gain in expected line score of a paired two-card line start over an unpaired unsuited one.
+	 * @return pair value, negative if ranks should be kept distinct
+	 */
+	public double getPairValue() {
+		return pairValue;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-16s %6s %10s %12s %6s%n", "Hand", "Score", "P(line)", "Contribution", "Value"));
+		for (PokerHand hand : PokerHand.values())
+			sb.append(String.format("%-16s %6d %10.6f %12.6f %6d%s%n", hand, system.getHandScore(hand.id),
+					handProbabilities[hand.id], expectedContributions[hand.id], handValues[hand.id],
+					isAvoided(hand.id) ? " avoid" : ""));
+		sb.append(String.format("Expected line score: %.4f, suited value: %.4f, pair value: %.4f%n",
+				expectedLineScore, suitedValue, pairValue));
+		sb.append("Priority:");
+		for (int handId : priorityOrder)
+			sb.append(" ").append(PokerHand.values()[handId]);
+		return sb.toString();
+	}
+
+	/**
+	 * Analyze the British, American, random, hypercorner and single-hand point systems, and time the analyses against
+	 * PokerSquares.POINT_SYSTEM_MILLIS.
+	 * @param args optional number of random systems of each kind to time (default 1000)
+	 */
+	public static void main(String[] args) {
+		int numSystems = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		PokerSquaresPointSystem.setSeed(0L);
+		long start = System.nanoTime();
+		PointSystemAnalyzer british = new PointSystemAnalyzer(PokerSquaresPointSystem.getBritishPointSystem());
+		double firstMillis = (System.nanoTime() - start) / 1e6; // includes loading LineCompletionTable
+		System.out.println("British:\n" + british + "\n");
+		System.out.println("Hypercorner:\n" + new PointSystemAnalyzer(PokerSquaresPointSystem.getHypercornerPointSystem())
+				+ "\n");
+		System.out.println("Single hand:\n" + new PointSystemAnalyzer(PokerSquaresPointSystem.getSingleHandPointSystem())
+				+ "\n");
+
+		System.out.printf("First analysis (with table load): %.2f ms%n", firstMillis);
+		String[] kinds = {"Random", "Hypercorner", "Single hand", "Ameritish"};
+		for (int kind = 0; kind < kinds.length; kind++) {
+			double maxMillis = 0, totalMillis = 0;
+			int avoidingFlush = 0;
+			for (int i = 0; i < numSystems; i++) {
+				PokerSquaresPointSystem system = kind == 0 ? PokerSquaresPointSystem.getRandomPointSystem()
+						: kind == 1 ? PokerSquaresPointSystem.getHypercornerPointSystem()
+						: kind == 2 ? PokerSquaresPointSystem.getSingleHandPointSystem()
+						: PokerSquaresPointSystem.getAmeritishPointSystem();
+				start = System.nanoTime();
+				PointSystemAnalyzer analyzer = new PointSystemAnalyzer(system);
+				double millis = (System.nanoTime() - start) / 1e6;
+				totalMillis += millis;
+				maxMillis = Math.max(maxMillis, millis);
+				if (analyzer.isAvoided(PokerHand.FLUSH.id))
+					avoidingFlush++;
+			}
+			System.out.printf("%-12s %d systems: mean %.3f ms, max %.3f ms (budget %d ms); flush avoided in %d%n",
+					kinds[kind], numSystems, totalMillis / numSystems, maxMillis, PokerSquares.POINT_SYSTEM_MILLIS,
+					avoidingFlush);
+		}
+	}
+}
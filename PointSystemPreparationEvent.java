@@ -0,0 +1,29 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * PointSystemPreparationEvent - a Java Flight Recorder event spanning a player's setPointSystem call.
+ */
+@Name("PokerSquares.PointSystemPreparation")
+@Label("Point System Preparation")
+@Category("Poker Squares")
+@Description("A player's setPointSystem call")
+@StackTrace(false)
+public class PointSystemPreparationEvent extends Event {
+
+	@Label("Player")
+	String player;
+
+	@Label("Point System")
+	@Description("Hand scores indexed by Poker hand classification")
+	String pointSystem;
+
+	@Label("Time Allowed")
+	@Timespan(Timespan.MILLISECONDS)
+	long millisAllowed;
+}
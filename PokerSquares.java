@@ -1,9 +1,15 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Random;
 import java.util.Scanner;
-import java.util.Stack;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /* A version of the solitaire game "Poker Squares" with variable point systems.
  * Author: Todd W. Neller
@@ -53,7 +59,25 @@ public class PokerSquares {
 	private boolean verbose = true; // whether or not to print move-by-move transcript of the game
 	private Card[][] grid = new Card[SIZE][SIZE]; // current game grid
 	private Random random = new Random(); // current game random number generator
+	private DealService dealService = new DealService(random); // source of deals
+	private final int[] deal = new int[DealService.DEAL_SIZE]; // card identification numbers of the current deal
 	private int minPoints; // minimum possible score for current point system.
+	private boolean seeded = false; // whether the current game is seeded
+	private long seed = -1; // seed of the current game if seeded, or -1 as recorded for unseeded games
+	private GameResultSink resultSink; // destination of game results, or null
+	private MoveMetrics moveMetrics; // per-turn move metrics, or null
+	private static MoveMetrics tournamentMoveMetrics; // move metrics of tournament games, or null
+	private MoveClock moveClock = MoveClock.WALL; // clock charging moves against the game time budget
+	private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean(); // source of thread CPU times
+	private final boolean cpuTimeSupported = threadBean.isCurrentThreadCpuTimeSupported(); // whether CPU times are read
+	private final GcPauseMonitor gcMonitor = GcPauseMonitor.getInstance(); // source of GC pause times
+	private long[] moveNanos = new long[SIZE * SIZE]; // wall-clock nanoseconds taken by each move of the current game
+	private long[] moveCpuNanos = new long[SIZE * SIZE]; // thread CPU nanoseconds of each move of the current game
+	private long[] moveGcNanos = new long[SIZE * SIZE]; // GC pause nanoseconds overlapping each move of the current game
+	private byte[] playPositions = new byte[SIZE * SIZE]; // row-major position of each move, or -1 if malformed
+	private int movesMade; // number of moves made in the current game
+	private byte[] dealtCards = new byte[SIZE * SIZE]; // identification numbers of the cards dealt in the current game
+	private int cardsDealt; // number of cards dealt in the current game
 
 	/**
 	 * Create a PokerSquares game with a given player and point system.
@@ -62,6 +86,21 @@ public class PokerSquares {
 	 * @param system current Poker Squares point system
 	 */
 	public PokerSquares(PokerSquaresPlayer player, PokerSquaresPointSystem system) {
+		this(player, system, true);
+	}
+
+	/**
+	 * Create a PokerSquares game with a given player and point system, giving the
+	 * player the point system either on a thread of its own, joined for at most
+	 * POINT_SYSTEM_MILLIS, or on the calling thread. Parallel tournaments prepare
+	 * players on the calling pool thread, so that no preparation outlasting the
+	 * join runs beside the pool's games.
+	 *
+	 * @param player          Poker Squares player object
+	 * @param system          current Poker Squares point system
+	 * @param prepareInThread whether to call setPointSystem on a thread of its own
+	 */
+	private PokerSquares(PokerSquaresPlayer player, PokerSquaresPointSystem system, boolean prepareInThread) {
 		this.player = player;
 		this.system = system;
 		minPoints = Integer.MAX_VALUE;
@@ -71,12 +110,26 @@ public class PokerSquares {
 		minPoints *= 10;
 		final PokerSquaresPlayer PLAYER = player;
 		final PokerSquaresPointSystem SYSTEM = system;
-		Thread thread = new Thread(new Runnable() {
+		Runnable preparation = new Runnable() {
 			@Override
 			public void run() {
+				PointSystemPreparationEvent event = new PointSystemPreparationEvent();
+				event.begin();
 				PLAYER.setPointSystem(SYSTEM, POINT_SYSTEM_MILLIS);
+				event.end();
+				if (event.shouldCommit()) {
+					event.player = PLAYER.getName();
+					event.pointSystem = SYSTEM.getCode();
+					event.millisAllowed = POINT_SYSTEM_MILLIS;
+					event.commit();
+				}
 			}
-		});
+		};
+		if (!prepareInThread) {
+			preparation.run();
+			return;
+		}
+		Thread thread = new Thread(preparation);
 		thread.start();
 		try {
 			thread.join(POINT_SYSTEM_MILLIS);
@@ -85,35 +138,193 @@ public class PokerSquares {
 		}
 	}
 
+	/**
+	 * Warm up a Monte Carlo player's compiled code on throwaway games before its
+	 * first timed game (see JitWarmup), once per player class and JVM, in at most
+	 * half the point system preparation time. The player's point system must be
+	 * set. Warm-up is not done when a game is created, so that it never competes
+	 * with timed games for cores: playSequence and the tournaments warm their
+	 * players before their first game, and callers of play should do the same.
+	 *
+	 * @param player player to warm up
+	 */
+	public static void warmUp(PokerSquaresPlayer player) {
+		if (player instanceof MonteCarloPlayer)
+			JitWarmup.warmUpOnce(player, Math.min(POINT_SYSTEM_MILLIS / 2, JitWarmup.DEFAULT_MILLIS));
+	}
+
+	/**
+	 * Set the maximum number of milliseconds for each subsequent game.
+	 *
+	 * @param gameMillis maximum milliseconds per game
+	 */
+	public void setGameMillis(long gameMillis) {
+		this.gameMillis = gameMillis;
+	}
+
+	/**
+	 * Set the clock used to charge moves against the game time budget in subsequent games. Wall-clock, thread CPU and
+	 * garbage collection pause times of every move are recorded whichever clock is used, with CPU times recorded as 0
+	 * if the JVM does not support thread CPU time.
+	 *
+	 * @param moveClock move clock
+	 * @throws UnsupportedOperationException if the CPU clock is requested but thread CPU time is not supported
+	 */
+	public void setMoveClock(MoveClock moveClock) {
+		if (moveClock == MoveClock.CPU && !cpuTimeSupported)
+			throw new UnsupportedOperationException("Thread CPU time is not supported by this JVM.");
+		this.moveClock = moveClock;
+	}
+
+	/**
+	 * Set the source of deals of subsequent games, e.g. a memory-mapped deal file for reproducible benchmarking.
+	 * Seeded games are dealt the service's deal for their seed.
+	 *
+	 * @param dealService deal service, or null to generate deals from the game pseudorandom number generator
+	 */
+	public void setDealService(DealService dealService) {
+		this.dealService = dealService != null ? dealService : new DealService(random);
+	}
+
+	/**
+	 * Set the per-turn move metrics recording the moves of subsequent games.
+	 *
+	 * @param moveMetrics move metrics, or null to record no metrics
+	 */
+	public void setMoveMetrics(MoveMetrics moveMetrics) {
+		this.moveMetrics = moveMetrics;
+	}
+
+	/**
+	 * Set the per-turn move metrics recording the moves of all subsequent
+	 * tournament games, sequential or parallel.
+	 *
+	 * @param moveMetrics move metrics, or null to record no metrics
+	 */
+	public static void setTournamentMoveMetrics(MoveMetrics moveMetrics) {
+		tournamentMoveMetrics = moveMetrics;
+	}
+
+	/**
+	 * Set the destination of the results of subsequent games.
+	 *
+	 * @param resultSink game result sink, or null to record no results
+	 */
+	public void setResultSink(GameResultSink resultSink) {
+		this.resultSink = resultSink;
+	}
+
+	/**
+	 * Set whether or not to print a move-by-move transcript of subsequent games.
+	 *
+	 * @param verbose whether or not to provide verbose output of game play
+	 */
+	public void setVerbose(boolean verbose) {
+		this.verbose = verbose;
+	}
+
+	/**
+	 * Play a game of Poker Squares with the deal given by a seed and return the
+	 * final game score.
+	 *
+	 * @param seed seed of the game's deal, any long value
+	 * @return final game score
+	 * @throws IllegalArgumentException if a file-backed deal service has no deal
+	 *                                  for the seed
+	 */
+	public int play(long seed) {
+		setSeed(seed);
+		return play();
+	}
+
 	/**
 	 * Play a game of Poker Squares and return the final game score.
 	 *
 	 * @return final game score
 	 */
 	public int play() {
+		movesMade = 0;
+		cardsDealt = 0;
+		GameEvent event = new GameEvent();
+		event.begin();
+		int score = playGame();
+		event.end();
+		if (event.shouldCommit()) {
+			event.player = player.getName();
+			event.pointSystem = system.getCode();
+			event.seed = seed;
+			event.score = score;
+			event.moves = movesMade;
+			event.commit();
+		}
+		if (resultSink != null) {
+			// record what a replay must apply to reproduce the moves of a replayable player
+			ReplayablePlayer replayable = player instanceof ReplayablePlayer ? (ReplayablePlayer) player : null;
+			resultSink.record(new GameResult(seed, player.getName(), system.getCode(), score,
+					Arrays.copyOf(moveNanos, movesMade), Arrays.copyOf(moveCpuNanos, movesMade),
+					Arrays.copyOf(moveGcNanos, movesMade), Arrays.copyOf(dealtCards, cardsDealt),
+					Arrays.copyOf(playPositions, movesMade), gameMillis, moveClock,
+					replayable != null && replayable.isGameSeeded(), replayable != null ? replayable.getGameSeed() : 0,
+					replayable != null ? replayable.getFixedSimulations() : 0));
+		}
+		seeded = false; // later unseeded games continue from the generator state
+		seed = -1;
+		return score;
+	}
+
+	/**
+	 * Play a game of Poker Squares, recording the wall-clock, CPU and garbage
+	 * collection pause time of each move and charging the time of the move clock,
+	 * and return the final game score. Exceptions thrown by the player forfeit
+	 * the game; those of the harness itself, e.g. a deal file without the game's
+	 * deal, are thrown.
+	 *
+	 * @return final game score
+	 * @throws IllegalArgumentException if the deal service has no deal for the seed
+	 * @throws IllegalStateException    if a deal file's deals are used up
+	 */
+	private int playGame() {
+		// deal cards, before the player's turn so that a failure is not blamed on the player
+		if (seeded)
+			dealService.getDeal(seed, deal, 0);
+		else
+			dealService.nextDeal(deal, 0);
+
 		try {
 			player.init();
 
-			// shuffle deck
-			Stack<Card> deck = new Stack<Card>();
-			for (Card card : Card.getAllCards())
-				deck.push(card);
-			Collections.shuffle(deck, random);
-
 			// clear grid
 			for (int row = 0; row < SIZE; row++)
 				for (int col = 0; col < SIZE; col++)
 					grid[row][col] = null;
 
 			// play game
-			long millisRemaining = gameMillis;
+			long nanosRemaining = gameMillis * 1000000L;
 			int cardsPlaced = 0;
 			while (cardsPlaced < SIZE * SIZE) {
-				Card card = deck.pop();
-				long startTime = System.currentTimeMillis();
+				Card card = Card.getCard(deal[cardsPlaced]);
+				dealtCards[cardsDealt++] = (byte) card.getCardId();
+				PlayEvent event = new PlayEvent();
+				long startCpuNanos = getCpuNanos();
+				event.begin();
+				long startNanos = System.nanoTime();
+				long millisRemaining = nanosRemaining / 1000000L;
 				int[] play = player.getPlay(card, millisRemaining);
-				millisRemaining -= System.currentTimeMillis() - startTime;
-				if (millisRemaining < 0) { // times out
+				long endNanos = System.nanoTime();
+				event.end();
+				moveCpuNanos[movesMade] = Math.max(0, getCpuNanos() - startCpuNanos);
+				moveGcNanos[movesMade] = gcMonitor.getPauseNanos(startNanos, endNanos);
+				moveNanos[movesMade] = endNanos - startNanos;
+				playPositions[movesMade++] = play != null && play.length == 2 && play[0] >= 0 && play[0] < SIZE
+						&& play[1] >= 0 && play[1] < SIZE ? (byte) (play[0] * SIZE + play[1]) : -1;
+				long chargedNanos = moveClock.getChargedNanos(moveNanos[movesMade - 1], moveCpuNanos[movesMade - 1],
+						moveGcNanos[movesMade - 1]);
+				nanosRemaining -= chargedNanos;
+				if (moveMetrics != null)
+					moveMetrics.record(movesMade - 1, moveNanos[movesMade - 1], nanosRemaining, player);
+				if (event.shouldCommit())
+					commitPlayEvent(event, movesMade - 1, millisRemaining, chargedNanos);
+				if (nanosRemaining < 0) { // times out
 					System.err.println("Player Out of Time");
 					return minPoints;
 				}
@@ -138,7 +349,42 @@ public class PokerSquares {
 	}
 
 	/**
-	 * Play a sequence of games, collecting and reporting statistics.
+	 * Get the CPU time of the current thread, if supported. The CPU clock can only
+	 * be selected if it is.
+	 *
+	 * @return thread CPU nanoseconds, or 0 if thread CPU time is not supported
+	 */
+	private long getCpuNanos() {
+		return cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : 0;
+	}
+
+	/**
+	 * Fill in and commit the flight recorder event of a move.
+	 *
+	 * @param event           event spanning the getPlay call
+	 * @param turn            turn index
+	 * @param millisRemaining game time remaining given to getPlay
+	 * @param chargedNanos    time charged for the move
+	 */
+	private void commitPlayEvent(PlayEvent event, int turn, long millisRemaining, long chargedNanos) {
+		event.player = player.getName();
+		event.turn = turn;
+		event.millisRemaining = millisRemaining;
+		event.chargedNanos = chargedNanos;
+		if (player instanceof SearchStatsProvider) {
+			SearchStatsProvider stats = (SearchStatsProvider) player;
+			event.candidates = stats.getMoveCandidates();
+			event.simulations = stats.getMoveSimulations();
+			event.nodes = stats.getMoveNodes();
+			event.depth = stats.getMoveDepth();
+			event.fallback = stats.isMoveFallback();
+		}
+		event.commit();
+	}
+
+	/**
+	 * Play a sequence of games, collecting and reporting statistics. The player
+	 * is warmed up (see warmUp) before the first game.
 	 *
 	 * @param numGames  number of games to play
 	 * @param startSeed seed of first game. Successive games use successive seeds
@@ -150,29 +396,29 @@ public class PokerSquares {
 		if (verbose) {
 			System.out.printf("%d games starting at seed %d\nPoint system:\n%s\n", numGames, startSeed, system);
 		}
+		warmUp(player);
 		int[] scores = new int[numGames];
-		double scoreMean = 0;
-		int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+		ScoreSummary summary = new ScoreSummary();
+		long wallNanos = 0, cpuNanos = 0, gcNanos = 0;
+		int totalMoves = 0;
 		for (int i = 0; i < numGames; i++) {
 			setSeed(startSeed + i);
 			int score = play();
 			scores[i] = score;
-			scoreMean += score;
-			if (scores[i] < min)
-				min = scores[i];
-			if (scores[i] > max)
-				max = scores[i];
-			System.out.println(score);
-		}
-		scoreMean /= numGames;
-		double scoreStdDev = 0;
-		for (int i = 0; i < numGames; i++) {
-			double diff = scores[i] - scoreMean;
-			scoreStdDev += diff * diff;
+			summary.add(score);
+			for (int move = 0; move < movesMade; move++) {
+				wallNanos += moveNanos[move];
+				cpuNanos += moveCpuNanos[move];
+				gcNanos += moveGcNanos[move];
+			}
+			totalMoves += movesMade;
+			if (resultSink == null) // with a sink, results are recorded there instead
+				System.out.println(score);
 		}
-		scoreStdDev = Math.sqrt(scoreStdDev / numGames);
-		System.out.printf("Score Mean: %f, Standard Deviation: %f, Minimum: %d, Maximum: %d\n", scoreMean, scoreStdDev, min,
-				max);
+		System.out.println(summary);
+		if (totalMoves > 0)
+			System.out.printf("Move Time Mean (ms): wall %.3f, CPU %.3f, GC pause %.3f (charged: %s)\n",
+					wallNanos / 1e6 / totalMoves, cpuNanos / 1e6 / totalMoves, gcNanos / 1e6 / totalMoves, moveClock);
 		return scores;
 	}
 
@@ -187,7 +433,8 @@ public class PokerSquares {
 	 * respectively, with all other players receiving linearly scaled tournament
 	 * scores between 0.0 and 1.0. For each scoring system, a player receives a
 	 * tournament score, and in the ith position of the return array is the sum of
-	 * all tournament scores of the ith player.
+	 * all tournament scores of the ith player. Each player is warmed up (see
+	 * warmUp) before its first game.
 	 *
 	 * @param players        Poker Squares players taking part in the tournament
 	 * @param systems        Poker Squares point systems used to evaluate players in
@@ -200,43 +447,295 @@ public class PokerSquares {
 	 */
 	public static double[] playTournament(ArrayList<PokerSquaresPlayer> players,
 			ArrayList<PokerSquaresPointSystem> systems, int gamesPerSystem, long startSeed) {
+		return playTournament(players, systems, gamesPerSystem, startSeed, null);
+	}
+
+	/**
+	 * Hold a Poker Squares tournament as in playTournament, recording the result of
+	 * each game in the given sink.
+	 *
+	 * @param players        Poker Squares players taking part in the tournament
+	 * @param systems        Poker Squares point systems used to evaluate players in
+	 *                       the tournament
+	 * @param gamesPerSystem the number of games that will be played by each player
+	 *                       with each point system
+	 * @param startSeed      the start seed for the pseudorandom number generator
+	 *                       that generates card deals
+	 * @param resultSink     game result sink, or null to record no results
+	 * @return the sum of the tournament scores for each of the given players
+	 */
+	public static double[] playTournament(ArrayList<PokerSquaresPlayer> players,
+			ArrayList<PokerSquaresPointSystem> systems, int gamesPerSystem, long startSeed, GameResultSink resultSink) {
+		return playTournament(players, systems, gamesPerSystem, startSeed, resultSink, null);
+	}
+
+	/**
+	 * Hold a Poker Squares tournament as in playTournament, recording the result of
+	 * each game in the given sink and dealing from the given deal service.
+	 *
+	 * @param players        Poker Squares players taking part in the tournament
+	 * @param systems        Poker Squares point systems used to evaluate players in
+	 *                       the tournament
+	 * @param gamesPerSystem the number of games that will be played by each player
+	 *                       with each point system
+	 * @param startSeed      the start seed for the pseudorandom number generator
+	 *                       that generates card deals
+	 * @param resultSink     game result sink, or null to record no results
+	 * @param dealService    deal service, e.g. a deal file, or null to generate deals
+	 * @return the sum of the tournament scores for each of the given players
+	 */
+	public static double[] playTournament(ArrayList<PokerSquaresPlayer> players,
+			ArrayList<PokerSquaresPointSystem> systems, int gamesPerSystem, long startSeed, GameResultSink resultSink,
+			DealService dealService) {
 		double[] tournamentScores = new double[players.size()];
+		String[] names = new String[players.size()];
+		for (int i = 0; i < players.size(); i++)
+			names[i] = players.get(i).getName();
 		for (PokerSquaresPointSystem system : systems) { // for each point system
 			System.out.println("Point System:\n" + system);
 			int[] totalScores = new int[players.size()];
 			for (int i = 0; i < players.size(); i++) { // for each player
 				PokerSquaresPlayer player = players.get(i);
 				System.out.printf("Player: \"%s\"\n", player.getName());
-				int[] scores = new PokerSquares(player, system).playSequence(gamesPerSystem, startSeed, false);
+				PokerSquares game = new PokerSquares(player, system);
+				game.setMoveMetrics(tournamentMoveMetrics);
+				game.setResultSink(resultSink);
+				game.setDealService(dealService);
+				int[] scores = game.playSequence(gamesPerSystem, startSeed, false);
 				for (int score : scores)
 					totalScores[i] += score;
 				System.out.printf("Player \"%s\" total score: %d\n", player.getName(), totalScores[i]);
 			}
-			int maxTotal = Integer.MIN_VALUE;
-			int minTotal = Integer.MAX_VALUE;
-			for (int totalScore : totalScores) {
-				if (totalScore > maxTotal)
-					maxTotal = totalScore;
-				if (totalScore < minTotal)
-					minTotal = totalScore;
+			addNormalizedScores(names, totalScores, tournamentScores);
+		}
+		printTournamentScores(names, tournamentScores);
+
+		return tournamentScores;
+	}
+
+	/**
+	 * Hold a Poker Squares tournament as in playTournament, but with games played
+	 * in parallel. Each game is played by a fresh player from the given factory on
+	 * a pool of at most numThreads threads, bounded by the number of available
+	 * processors so that players are not timed while competing for cores. The
+	 * player is given the point system on the pool thread that plays its game, so
+	 * that preparation counts against the pool's bound too. A fresh player per
+	 * game keeps each game's moves independent of which games the pool happened
+	 * to schedule before it on the same thread (e.g. for seeded players), at the
+	 * cost of preparing every game's player: tables a player loads and memos it
+	 * fills (such as JIsraelsonPlayer's heuristic and line heuristic memo) do not
+	 * carry over between games as they do in the sequential tournament. Each
+	 * game with a given seed deals the same cards as in the sequential tournament,
+	 * and tournament scores are computed from the same per-game scores. If any
+	 * game fails (other than by its player, which forfeits the game as in the
+	 * sequential tournament), the remaining games are cancelled and the failure
+	 * is thrown, with no scores reported (see ParallelTournamentCheck).
+	 *
+	 * @param playerFactories factories creating a new instance of each player
+	 * @param systems         Poker Squares point systems used to evaluate players in
+	 *                        the tournament
+	 * @param gamesPerSystem  the number of games that will be played by each player
+	 *                        with each point system
+	 * @param startSeed       the start seed for the pseudorandom number generator
+	 *                        that generates card deals
+	 * @param numThreads      the maximum number of games played at once
+	 * @return the sum of the tournament scores for each of the given players
+	 * @throws IllegalStateException if a game fails or the tournament is
+	 *                               interrupted
+	 */
+	public static double[] playParallelTournament(ArrayList<Supplier<PokerSquaresPlayer>> playerFactories,
+			ArrayList<PokerSquaresPointSystem> systems, int gamesPerSystem, long startSeed, int numThreads) {
+		return playParallelTournament(playerFactories, systems, gamesPerSystem, startSeed, numThreads, null);
+	}
+
+	/**
+	 * Hold a parallel Poker Squares tournament as in playParallelTournament,
+	 * recording the result of each game in the given (thread-safe) sink.
+	 *
+	 * @param playerFactories factories creating a new instance of each player
+	 * @param systems         Poker Squares point systems used to evaluate players in
+	 *                        the tournament
+	 * @param gamesPerSystem  the number of games that will be played by each player
+	 *                        with each point system
+	 * @param startSeed       the start seed for the pseudorandom number generator
+	 *                        that generates card deals
+	 * @param numThreads      the maximum number of games played at once
+	 * @param resultSink      game result sink, or null to record no results
+	 * @return the sum of the tournament scores for each of the given players
+	 * @throws IllegalStateException if a game fails or the tournament is
+	 *                               interrupted
+	 */
+	public static double[] playParallelTournament(ArrayList<Supplier<PokerSquaresPlayer>> playerFactories,
+			ArrayList<PokerSquaresPointSystem> systems, int gamesPerSystem, long startSeed, int numThreads,
+			final GameResultSink resultSink) {
+		return playParallelTournament(playerFactories, systems, gamesPerSystem, startSeed, numThreads, resultSink,
+				MoveClock.WALL);
+	}
+
+	/**
+	 * Hold a parallel Poker Squares tournament as in playParallelTournament,
+	 * recording the result of each game in the given (thread-safe) sink and
+	 * charging moves with the given clock. MoveClock.CPU keeps players from being
+	 * charged for time their threads spend descheduled by other games.
+	 *
+	 * @param playerFactories factories creating a new instance of each player
+	 * @param systems         Poker Squares point systems used to evaluate players in
+	 *                        the tournament
+	 * @param gamesPerSystem  the number of games that will be played by each player
+	 *                        with each point system
+	 * @param startSeed       the start seed for the pseudorandom number generator
+	 *                        that generates card deals
+	 * @param numThreads      the maximum number of games played at once
+	 * @param resultSink      game result sink, or null to record no results
+	 * @param moveClock       clock charging moves against the game time budget
+	 * @return the sum of the tournament scores for each of the given players
+	 * @throws IllegalStateException if a game fails or the tournament is
+	 *                               interrupted
+	 */
+	public static double[] playParallelTournament(ArrayList<Supplier<PokerSquaresPlayer>> playerFactories,
+			ArrayList<PokerSquaresPointSystem> systems, int gamesPerSystem, long startSeed, int numThreads,
+			final GameResultSink resultSink, final MoveClock moveClock) {
+		return playParallelTournament(playerFactories, systems, gamesPerSystem, startSeed, numThreads, resultSink,
+				moveClock, null);
+	}
+
+	/**
+	 * Hold a parallel Poker Squares tournament as in playParallelTournament,
+	 * recording the result of each game in the given (thread-safe) sink, charging
+	 * moves with the given clock and dealing from the given deal file service,
+	 * which all games share.
+	 *
+	 * @param playerFactories factories creating a new instance of each player
+	 * @param systems         Poker Squares point systems used to evaluate players in
+	 *                        the tournament
+	 * @param gamesPerSystem  the number of games that will be played by each player
+	 *                        with each point system
+	 * @param startSeed       the start seed for the pseudorandom number generator
+	 *                        that generates card deals
+	 * @param numThreads      the maximum number of games played at once
+	 * @param resultSink      game result sink, or null to record no results
+	 * @param moveClock       clock charging moves against the game time budget
+	 * @param dealService     file-backed deal service, or null to generate deals
+	 * @return the sum of the tournament scores for each of the given players
+	 * @throws IllegalArgumentException if the deal service is not file-backed, as
+	 *                                  generating services cannot be shared
+	 * @throws IllegalStateException    if a game fails (e.g. the deal file has no
+	 *                                  deal for a seed) or the tournament is
+	 *                                  interrupted
+	 */
+	public static double[] playParallelTournament(ArrayList<Supplier<PokerSquaresPlayer>> playerFactories,
+			ArrayList<PokerSquaresPointSystem> systems, int gamesPerSystem, long startSeed, int numThreads,
+			final GameResultSink resultSink, final MoveClock moveClock, final DealService dealService) {
+		if (dealService != null && !dealService.isFileBacked())
+			throw new IllegalArgumentException("Parallel games can only share a file-backed deal service.");
+		int numPlayers = playerFactories.size();
+		final String[] names = new String[numPlayers]; // set by the games, read after they have all completed
+		// Warm each player class before any game starts, on a player of its own, so that warm-up neither competes
+		// with timed games for cores nor advances the generators of a seeded game's player.
+		if (JitWarmup.isEnabled() && !systems.isEmpty())
+			for (Supplier<PokerSquaresPlayer> factory : playerFactories) {
+				PokerSquaresPlayer player = factory.get();
+				player.setPointSystem(systems.get(0), POINT_SYSTEM_MILLIS);
+				warmUp(player);
+			}
+		final int[][][] scores = new int[systems.size()][numPlayers][gamesPerSystem];
+
+		int poolSize = Math.max(1, Math.min(numThreads, Runtime.getRuntime().availableProcessors()));
+		ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+		ArrayList<Future<?>> games = new ArrayList<Future<?>>();
+		for (int s = 0; s < systems.size(); s++)
+			for (int i = 0; i < numPlayers; i++)
+				for (int g = 0; g < gamesPerSystem; g++) {
+					final int S = s, I = i, G = g;
+					final PokerSquaresPointSystem SYSTEM = systems.get(s);
+					final Supplier<PokerSquaresPlayer> FACTORY = playerFactories.get(i);
+					games.add(pool.submit(new Runnable() {
+						@Override
+						public void run() {
+							PokerSquaresPlayer player = FACTORY.get();
+							names[I] = player.getName();
+							PokerSquares game = new PokerSquares(player, SYSTEM, false);
+							game.verbose = false;
+							game.setMoveClock(moveClock);
+							game.setMoveMetrics(tournamentMoveMetrics);
+							game.setResultSink(resultSink);
+							game.setDealService(dealService);
+							game.setSeed(startSeed + G);
+							scores[S][I][G] = game.play();
+						}
+					}));
+				}
+		try {
+			for (Future<?> game : games)
+				game.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Parallel tournament interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Parallel tournament game failed", e.getCause());
+		} finally {
+			pool.shutdownNow(); // cancel the games not yet started after a failure
+			try {
+				// games in progress finish within their time budget, as players are not interrupted
+				if (!pool.awaitTermination(POINT_SYSTEM_MILLIS + GAME_MILLIS, TimeUnit.MILLISECONDS))
+					System.err.println("Parallel tournament games still running after shutdown");
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
 			}
-			for (int i = 0; i < players.size(); i++) { // for each player
-				double normalizedTotal = (double) (totalScores[i] - minTotal) / (maxTotal - minTotal);
-				System.out.println("Player \"" + players.get(i).getName() + "\" normalized score: " + normalizedTotal);
-				tournamentScores[i] += normalizedTotal;
+		}
+
+		double[] tournamentScores = new double[numPlayers];
+		for (int s = 0; s < systems.size(); s++) {
+			System.out.println("Point System:\n" + systems.get(s));
+			int[] totalScores = new int[numPlayers];
+			for (int i = 0; i < numPlayers; i++) {
+				for (int score : scores[s][i])
+					totalScores[i] += score;
+				System.out.printf("Player \"%s\" total score: %d\n", names[i], totalScores[i]);
 			}
+			addNormalizedScores(names, totalScores, tournamentScores);
 		}
-		double max = Double.NEGATIVE_INFINITY;
-		for (double score : tournamentScores) {
-			if (score > max)
-				max = score;
+		printTournamentScores(names, tournamentScores);
+
+		return tournamentScores;
+	}
+
+	/**
+	 * Linearly scale the total scores of the players for one point system so that
+	 * the maximum and minimum totals become 1.0 and 0.0, and add them to the
+	 * tournament scores.
+	 *
+	 * @param names            player names
+	 * @param totalScores      total score of each player with the point system
+	 * @param tournamentScores tournament scores to add to
+	 */
+	private static void addNormalizedScores(String[] names, int[] totalScores, double[] tournamentScores) {
+		int maxTotal = Integer.MIN_VALUE;
+		int minTotal = Integer.MAX_VALUE;
+		for (int totalScore : totalScores) {
+			if (totalScore > maxTotal)
+				maxTotal = totalScore;
+			if (totalScore < minTotal)
+				minTotal = totalScore;
 		}
-		System.out.printf("%20s %s\n", "Player", "Tournament Score");
-		for (int i = 0; i < players.size(); i++) { // for each player
-			System.out.printf("%20s %f\n", players.get(i).getName(), tournamentScores[i]);
+		for (int i = 0; i < names.length; i++) { // for each player
+			double normalizedTotal = (double) (totalScores[i] - minTotal) / (maxTotal - minTotal);
+			System.out.println("Player \"" + names[i] + "\" normalized score: " + normalizedTotal);
+			tournamentScores[i] += normalizedTotal;
 		}
+	}
 
-		return tournamentScores;
+	/**
+	 * Print the tournament score of each player.
+	 *
+	 * @param names            player names
+	 * @param tournamentScores tournament scores
+	 */
+	private static void printTournamentScores(String[] names, double[] tournamentScores) {
+		System.out.printf("%20s %s\n", "Player", "Tournament Score");
+		for (int i = 0; i < names.length; i++) { // for each player
+			System.out.printf("%20s %f\n", names[i], tournamentScores[i]);
+		}
 	}
 
 	/**
@@ -245,6 +744,8 @@ public class PokerSquares {
 	 * @param seed pseudorandom number generator seed
 	 */
 	private void setSeed(long seed) {
+		seeded = true;
+		this.seed = seed;
 		random.setSeed(seed);
 	}
 
@@ -59,6 +59,34 @@ public class PokerSquaresPointSystem {
 		return scores.clone();
 	}
 	
+	/**
+	 * Return a compact representation of the score table: the scores indexed by Poker hand classification
+	 * identification numbers, separated by slashes (e.g. "0/1/3/6/12/5/10/16/30/30" for the British system).
+	 * @return compact representation of the score table
+	 */
+	public String getCode() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < scores.length; i++) {
+			if (i > 0)
+				sb.append('/');
+			sb.append(scores[i]);
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * Create a point system from its compact representation.
+	 * @param code compact representation as returned by getCode
+	 * @return point system with the given scores
+	 */
+	public static PokerSquaresPointSystem fromCode(String code) {
+		String[] fields = code.split("/");
+		int[] scores = new int[fields.length];
+		for (int i = 0; i < fields.length; i++)
+			scores[i] = Integer.parseInt(fields[i]);
+		return new PokerSquaresPointSystem(scores);
+	}
+	
 	/**
 	 * Get the score of the given Card grid.
 	 * @param grid Card grid
@@ -0,0 +1,222 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Ponderer - searches in a background thread between the moves of a MonteCarloPlayer (pondering), while the harness
+ * places the card, reports the grid and deals the next card.
+ * After a move, the ponderer copies the player's search state into its own MonteCarloSearch and, for every card that may
+ * be dealt next and every empty position, accumulates the scores of simulations after playing the card there, in
+ * round-robin order.  When the next card is dealt, the player stops the ponderer, and the statistics for that card
+ * warm-start the move's search (see MonteCarloSearch.setPriorStatistics).
+ *
+ * The pondering search shares the player's leaf evaluator and rollout policy.  This is safe because the player's own
+ * search is idle while pondering, and the player stops (and joins) the pondering thread before any other call.
+ */
+public class Ponderer implements Runnable {
+
+	private static final int SIZE = PokerSquares.SIZE; // number of rows/columns in square grid
+	private static final int NUM_POS = SIZE * SIZE; // number of positions in square grid
+	private static final int NUM_CARDS = Card.NUM_CARDS; // number of cards in deck
+	private final MonteCarloSearch search; // pondering search with its own state and pseudorandom number generators, and
+	                                       // the move depth limit of the player's search
+	private final double[][] scoreTotals = new double[NUM_CARDS][NUM_POS]; // simulation score totals by card id, play
+	private final int[][] counts = new int[NUM_CARDS][NUM_POS]; // simulations by card id and play position
+	private final Card[] nextCards = new Card[NUM_CARDS]; // cards that may be dealt next
+	private final int[] positions = new int[NUM_POS]; // empty positions as row-major indices
+	private int numNextCards, numPositions; // numbers of cards that may be dealt next and of empty positions
+	private int ponderedPlays = -1; // number of plays in the pondered grid, or -1 if there are no statistics
+	private int ponderedDepth; // depth limit of the pondering simulations
+	private long simulations = 0; // total number of pondering simulations
+	private volatile boolean stopping; // whether the pondering thread has been asked to stop
+	private Thread thread; // pondering thread, or null if not pondering
+
+	/**
+	 * Create a ponderer.
+	 */
+	public Ponderer() {
+		search = new MonteCarloSearch(0);
+	}
+
+	/**
+	 * Start pondering from the state of a search after its move, unless the next move is forced or the game is over.
+	 * Any earlier pondering is stopped and its statistics discarded.
+	 * @param from search whose state is pondered, which must not be used until stop is called
+	 */
+	public void start(MonteCarloSearch from) {
+		stop();
+		ponderedPlays = -1;
+		if (from.getNumPlays() >= NUM_POS - 1)
+			return;
+		search.copyState(from);
+		ponderedPlays = search.getNumPlays();
+		ponderedDepth = search.getMoveDepth();
+		Card[] deck = search.getDeck();
+		numNextCards = NUM_CARDS - ponderedPlays;
+		System.arraycopy(deck, ponderedPlays, nextCards, 0, numNextCards);
+		numPositions = 0;
+		Card[][] grid = search.getGrid();
+		for (int pos = 0; pos < NUM_POS; pos++)
+			if (grid[pos / SIZE][pos % SIZE] == null)
+				positions[numPositions++] = pos;
+		for (int i = 0; i < numNextCards; i++) {
+			Arrays.fill(scoreTotals[nextCards[i].getCardId()], 0);
+			Arrays.fill(counts[nextCards[i].getCardId()], 0);
+		}
+		stopping = false;
+		thread = new Thread(this, "Ponderer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stop pondering and wait for the pondering thread to finish its current simulation.  The statistics are kept.
+	 */
+	public void stop() {
+		if (thread == null)
+			return;
+		stopping = true;
+		boolean interrupted = false;
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true; // keep waiting: the state must not be shared with a running thread
+			}
+		}
+		thread = null;
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Return whether the pondering thread is running.
+	 * @return whether pondering
+	 */
+	public boolean isPondering() {
+		return thread != null && thread.isAlive();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+		while (true)
+			for (int i = 0; i < numNextCards; i++) {
+				Card card = nextCards[i];
+				double[] totals = scoreTotals[card.getCardId()];
+				int[] cardCounts = counts[card.getCardId()];
+				for (int j = 0; j < numPositions; j++) {
+					if (stopping)
+						return;
+					int play = positions[j];
+					search.makePlay(card, play / SIZE, play % SIZE);
+					totals[play] += search.simulate();
+					cardCounts[play]++;
+					search.undoPlay();
+					simulations++;
+				}
+			}
+	}
+
+	/**
+	 * Give the pondering statistics for the dealt card to a search as prior statistics for its move, if they were
+	 * gathered from its current state.  The ponderer must be stopped.
+	 * @param to search about to choose a play for the card, from the state pondered
+	 * @param card dealt card
+	 */
+	public void applyTo(MonteCarloSearch to, Card card) {
+		if (ponderedPlays >= 0 && ponderedPlays == to.getNumPlays())
+			to.setPriorStatistics(scoreTotals[card.getCardId()], counts[card.getCardId()], ponderedDepth);
+	}
+
+	/**
+	 * Get the total number of pondering simulations, exact while not pondering.
+	 * @return number of simulations
+	 */
+	public long getSimulations() {
+		return simulations;
+	}
+
+	/**
+	 * Return whether any pondering thread is running.
+	 * @return whether a pondering thread is alive
+	 */
+	private static boolean isAnyPondering() {
+		for (Thread thread : Thread.getAllStackTraces().keySet())
+			if (thread.getName().equals("Ponderer") && thread.isAlive())
+				return true;
+		return false;
+	}
+
+	/**
+	 * Play a game of British Poker Squares on a deal the way the PokerSquares harness does, pausing after each move.
+	 * @param player player
+	 * @param deck shuffled deck
+	 * @param numCards number of cards to play
+	 * @param gameMillis game time in milliseconds
+	 * @param pauseMillis pause after each move in milliseconds
+	 * @return grid after play
+	 */
+	private static Card[][] play(PokerSquaresPlayer player, ArrayList<Card> deck, int numCards, long gameMillis,
+			long pauseMillis) throws InterruptedException {
+		Card[][] grid = new Card[SIZE][SIZE];
+		player.init();
+		long millisRemaining = gameMillis;
+		for (int i = 0; i < numCards; i++) {
+			long start = System.currentTimeMillis();
+			int[] play = player.getPlay(deck.get(i), millisRemaining);
+			millisRemaining -= System.currentTimeMillis() - start;
+			grid[play[0]][play[1]] = deck.get(i);
+			Thread.sleep(pauseMillis);
+		}
+		return grid;
+	}
+
+	/**
+	 * Compare a JIsraelsonPlayer with and without pondering in British games on the same deals at each of several game
+	 * times, with a pause after each move standing in for the harness's time between moves (placing the card, printing
+	 * and dealing), and check that init stops pondering.  The two players alternate games, and the difference of their
+	 * scores is summarized per deal, so its standard error excludes the variance of the deals.
+	 * @param args optional number of games per game time (default 40), comma-separated game times in milliseconds
+	 * (default 250,1000,5000) and pause after each move in milliseconds (default 20)
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int numGames = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+		String gameTimes = args.length > 1 ? args[1] : "250,1000,5000";
+		long pauseMillis = args.length > 2 ? Long.parseLong(args[2]) : 20;
+		PokerSquaresPointSystem system = PokerSquaresPointSystem.getBritishPointSystem();
+		ArrayList<Card> deck = new ArrayList<Card>();
+		Collections.addAll(deck, Card.getAllCards());
+		JIsraelsonPlayer player = new JIsraelsonPlayer(), ponderingPlayer = new JIsraelsonPlayer();
+		ponderingPlayer.setPondering(true);
+		player.setPointSystem(system, PokerSquares.POINT_SYSTEM_MILLIS);
+		ponderingPlayer.setPointSystem(system, PokerSquares.POINT_SYSTEM_MILLIS);
+		PokerSquares.warmUp(player);
+		System.out.printf("%8s %8s %6s %8s %6s %8s %6s %14s%n", "GameMs", "Off", "SE", "On", "SE", "On-Off", "SE",
+				"PonderSims");
+		for (String gameTime : gameTimes.split(",")) {
+			long gameMillis = Long.parseLong(gameTime);
+			ScoreSummary off = new ScoreSummary(), on = new ScoreSummary(), difference = new ScoreSummary();
+			long startPonderSimulations = ponderingPlayer.getPonderSimulations();
+			for (int seed = 0; seed < numGames; seed++) {
+				Collections.shuffle(deck, new Random(seed));
+				int offScore = system.getScore(play(player, deck, NUM_POS, gameMillis, pauseMillis));
+				int onScore = system.getScore(play(ponderingPlayer, deck, NUM_POS, gameMillis, pauseMillis));
+				off.add(offScore);
+				on.add(onScore);
+				difference.add(onScore - offScore);
+			}
+			System.out.printf("%8d %8.2f %6.2f %8.2f %6.2f %8.2f %6.2f %14d%n", gameMillis, off.getMean(),
+					off.getStandardError(), on.getMean(), on.getStandardError(), difference.getMean(),
+					difference.getStandardError(), ponderingPlayer.getPonderSimulations() - startPonderSimulations);
+		}
+		// stop mid-game
+		play(ponderingPlayer, deck, NUM_POS / 2, 1000, 0);
+		boolean ponderingMidGame = isAnyPondering();
+		ponderingPlayer.init();
+		System.out.printf("Pondering mid-game: %b, after init: %b%n", ponderingMidGame, isAnyPondering());
+	}
+}
@@ -0,0 +1,54 @@
+/**
+ * PreRankingAllocator - ranks the candidate plays of a move by the leaf score of the grid right after each play,
+ * without rollouts (see LineDeltaEvaluator), then leaves the simulations to another allocator, focused on the
+ * best-ranked candidates.  Keeping a single candidate chooses the top-ranked play with no simulation at all.
+ * The ranking needs a LineLeafEvaluator; with any other leaf evaluator, all candidates are passed on unranked.
+ */
+public class PreRankingAllocator implements SimulationAllocator {
+
+	private final SimulationAllocator allocator; // allocator of the simulations among the kept candidates
+	private final int maxCandidates; // best-ranked candidates kept for simulation
+	private final LineDeltaEvaluator deltaEvaluator = new LineDeltaEvaluator(); // batched scoring of candidates
+	private final double[] values = new double[PokerSquares.SIZE * PokerSquares.SIZE]; // score of each candidate
+
+	/**
+	 * Create an allocator that simulates the best-ranked candidates of each move.
+	 * @param allocator allocator of the simulations among the kept candidates
+	 * @param maxCandidates number of best-ranked candidates kept, at least 1
+	 */
+	public PreRankingAllocator(SimulationAllocator allocator, int maxCandidates) {
+		if (maxCandidates < 1)
+			throw new IllegalArgumentException("At least one candidate must be kept: " + maxCandidates);
+		this.allocator = allocator;
+		this.maxCandidates = maxCandidates;
+	}
+
+	/* (non-Javadoc)
+	 * @see SimulationAllocator#choosePlay(MonteCarloSearch, Card, long)
+	 */
+	@Override
+	public int choosePlay(MonteCarloSearch search, Card card, long moveMillis) {
+		if (!(search.getLeafEvaluator() instanceof LineLeafEvaluator))
+			return allocator.choosePlay(search, card, moveMillis);
+		int numCandidates = search.getNumCandidates();
+		int[] candidates = search.getCandidates();
+		deltaEvaluator.evaluate((LineLeafEvaluator) search.getLeafEvaluator(), search.getGrid(), search.getNumPlays(),
+				card, candidates, numCandidates, values);
+		// sort the candidates by decreasing score (insertion sort, keeping ties in order)
+		for (int i = 1; i < numCandidates; i++) {
+			int play = candidates[i];
+			double value = values[i];
+			int j = i - 1;
+			for (; j >= 0 && values[j] < value; j--) {
+				candidates[j + 1] = candidates[j];
+				values[j + 1] = values[j];
+			}
+			candidates[j + 1] = play;
+			values[j + 1] = value;
+		}
+		if (maxCandidates == 1)
+			return candidates[0];
+		search.setNumCandidates(Math.min(maxCandidates, numCandidates));
+		return allocator.choosePlay(search, card, moveMillis);
+	}
+}
@@ -0,0 +1,31 @@
+import java.util.Random;
+
+/**
+ * RandomRolloutPolicy - places each simulated card in a uniformly random empty position.
+ * This is the original placement of the Monte Carlo players and makes one pseudorandom draw per card.
+ */
+public class RandomRolloutPolicy implements RolloutPolicy {
+
+	/* (non-Javadoc)
+	 * @see RolloutPolicy#setPointSystem(PokerSquaresPointSystem)
+	 */
+	@Override
+	public void setPointSystem(PokerSquaresPointSystem system) {
+	}
+
+	/* (non-Javadoc)
+	 * @see RolloutPolicy#choosePlay(Card[][], Card, int[], int, Random)
+	 */
+	@Override
+	public int choosePlay(Card[][] grid, Card card, int[] legalPlays, int numLegal, Random random) {
+		return legalPlays[random.nextInt(numLegal)];
+	}
+
+	/* (non-Javadoc)
+	 * @see RolloutPolicy#getName()
+	 */
+	@Override
+	public String getName() {
+		return "Random";
+	}
+}
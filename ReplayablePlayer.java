@@ -0,0 +1,39 @@
+/**
+ * ReplayablePlayer - implemented by players whose moves can be reproduced, so that the harness can record with each
+ * game what a replay must apply to reproduce them (see GameLogReplayer): the seed the player was given before the game
+ * and its fixed number of simulations.  A game is reproducible if the player was seeded before it and simulated a
+ * fixed number of times, so that its moves depend on neither earlier games nor time.
+ */
+public interface ReplayablePlayer {
+
+	/**
+	 * Seed the player's pseudorandom number generators.
+	 * @param seed seed
+	 */
+	void setSeed(long seed);
+
+	/**
+	 * Return whether the player was seeded between the end of the previous game (or warm-up) and the start of the
+	 * current or most recent game.
+	 * @return whether the game was seeded
+	 */
+	boolean isGameSeeded();
+
+	/**
+	 * Get the seed the player was given before the current or most recent game.
+	 * @return seed, meaningful only if isGameSeeded
+	 */
+	long getGameSeed();
+
+	/**
+	 * Set a fixed number of simulations per candidate play.
+	 * @param fixedSimulations simulations per candidate play, or 0 to simulate for the time given
+	 */
+	void setFixedSimulations(int fixedSimulations);
+
+	/**
+	 * Get the fixed number of simulations per candidate play.
+	 * @return simulations per candidate play, or 0 if simulating for the time given
+	 */
+	int getFixedSimulations();
+}
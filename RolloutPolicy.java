@@ -0,0 +1,32 @@
+import java.util.Random;
+
+/**
+ * RolloutPolicy - chooses where a simulated card is placed during Monte Carlo rollouts.
+ * A policy is told the point system before use and is then asked for one play per simulated card.
+ * Policies are called for every simulated card, so they should avoid allocation and keep their work small.
+ */
+public interface RolloutPolicy {
+
+	/**
+	 * setPointSystem - provides the policy with the point system used by subsequent rollouts.
+	 * @param system - current point system
+	 */
+	void setPointSystem(PokerSquaresPointSystem system);
+
+	/**
+	 * choosePlay - chooses the position of a simulated card.
+	 * @param grid - current grid with Card objects or null (for empty positions).  It must be unchanged on return.
+	 * @param card - simulated card to place
+	 * @param legalPlays - row-major indices of the empty positions in elements 0 through numLegal - 1
+	 * @param numLegal - number of empty positions
+	 * @param random - pseudorandom number generator of the simulation
+	 * @return the chosen row-major index, one of the given legal plays
+	 */
+	int choosePlay(Card[][] grid, Card card, int[] legalPlays, int numLegal, Random random);
+
+	/**
+	 * getName - gets a short name of the policy for reports.
+	 * @return policy name
+	 */
+	String getName();
+}
@@ -0,0 +1,52 @@
+import java.util.ArrayList;
+
+/**
+ * RolloutPolicyBenchmark - sweeps rollout policy x rollout depth x game time budget for the RandomMCPlayer and reports
+ * the mean game score of each combination.  All combinations play the same seeded deals with the same point system:
+ * British by default, or American or a hypercorner system generated from a given seed, under which
+ * HandValueRolloutPolicy avoids the hand classes scoring -1.
+ */
+public class RolloutPolicyBenchmark {
+
+	/**
+	 * Run the sweep and print a table of mean scores.
+	 * @param args optional number of games per combination (default 5) and comma-separated game budgets in
+	 * milliseconds (default 1000,4000), point system: british (default), american or hypercorner, and seed of the
+	 * hypercorner system (default 0)
+	 */
+	public static void main(String[] args) {
+		int numGames = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		String[] budgetStrings = (args.length > 1 ? args[1] : "1000,4000").split(",");
+		int[] depths = {1, 2, 3, 5};
+		String systemName = args.length > 2 ? args[2] : "british";
+		PokerSquaresPointSystem.setSeed(args.length > 3 ? Long.parseLong(args[3]) : 0L);
+		PokerSquaresPointSystem system = systemName.equals("american") ? PokerSquaresPointSystem.getAmericanPointSystem()
+				: systemName.equals("hypercorner") ? PokerSquaresPointSystem.getHypercornerPointSystem()
+				: PokerSquaresPointSystem.getBritishPointSystem();
+		System.out.println(PointSystemAnalyzer.getAnalyzer(system));
+
+		ArrayList<String> results = new ArrayList<String>();
+		for (String budgetString : budgetStrings) {
+			long gameMillis = Long.parseLong(budgetString.trim());
+			for (int depth : depths) {
+				RolloutPolicy[] policies = {new RandomRolloutPolicy(), new GreedyRolloutPolicy(0.1),
+						new LookaheadRolloutPolicy(), new HandValueRolloutPolicy()};
+				for (RolloutPolicy policy : policies) {
+					RandomMCPlayer player = new RandomMCPlayer(depth);
+					player.setRolloutPolicy(policy);
+					PokerSquares game = new PokerSquares(player, system);
+					game.setGameMillis(gameMillis);
+					int[] scores = game.playSequence(numGames, 0L, false);
+					ScoreSummary summary = new ScoreSummary();
+					for (int score : scores)
+						summary.add(score);
+					results.add(String.format("%-12s %5d %8d %8.2f %8.2f", policy.getName(), depth, gameMillis,
+							summary.getMean(), summary.getStandardError()));
+				}
+			}
+		}
+		System.out.printf("%-12s %5s %8s %8s %8s\n", "Policy", "Depth", "Millis", "Mean", "StdErr");
+		for (String result : results)
+			System.out.println(result);
+	}
+}
@@ -0,0 +1,32 @@
+/**
+ * ScoreLeafEvaluator - scores simulated grids by their current scores under the point system.  Empty positions
+ * count as no cards, so the lines of a partially-filled grid score as the hands made so far.
+ */
+public class ScoreLeafEvaluator implements LineLeafEvaluator {
+
+	private PokerSquaresPointSystem system; // point system
+
+	/* (non-Javadoc)
+	 * @see LeafEvaluator#setPointSystem(PokerSquaresPointSystem)
+	 */
+	@Override
+	public void setPointSystem(PokerSquaresPointSystem system) {
+		this.system = system;
+	}
+
+	/* (non-Javadoc)
+	 * @see LeafEvaluator#evaluate(Card[][], int)
+	 */
+	@Override
+	public double evaluate(Card[][] grid, int numPlays) {
+		return system.getScore(grid);
+	}
+
+	/* (non-Javadoc)
+	 * @see LineLeafEvaluator#evaluateLine(Card[], int)
+	 */
+	@Override
+	public double evaluateLine(Card[] line, int numPlays) {
+		return system.getHandScore(line);
+	}
+}
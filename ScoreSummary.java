@@ -0,0 +1,83 @@
+/**
+ * ScoreSummary - streaming aggregation of game scores (count, mean, variance, minimum and maximum) that does not
+ * hold the individual scores.  The mean and variance are updated with Welford's method.
+ */
+public class ScoreSummary {
+
+	private long count; // number of scores
+	private double mean; // mean score
+	private double squaredDeviations; // sum of squared differences from the mean
+	private int min = Integer.MAX_VALUE; // minimum score
+	private int max = Integer.MIN_VALUE; // maximum score
+
+	/**
+	 * Add a score.
+	 * @param score game score
+	 */
+	public void add(int score) {
+		count++;
+		double delta = score - mean;
+		mean += delta / count;
+		squaredDeviations += delta * (score - mean);
+		if (score < min)
+			min = score;
+		if (score > max)
+			max = score;
+	}
+
+	/**
+	 * Get the number of scores.
+	 * @return number of scores
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the mean score.
+	 * @return mean score
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * Get the population standard deviation of the scores.
+	 * @return population standard deviation
+	 */
+	public double getStandardDeviation() {
+		return count == 0 ? 0 : Math.sqrt(squaredDeviations / count);
+	}
+
+	/**
+	 * Get the standard error of the mean score, using the sample standard deviation.
+	 * @return standard error of the mean
+	 */
+	public double getStandardError() {
+		return count < 2 ? 0 : Math.sqrt(squaredDeviations / (count - 1) / count);
+	}
+
+	/**
+	 * Get the minimum score.
+	 * @return minimum score
+	 */
+	public int getMin() {
+		return min;
+	}
+
+	/**
+	 * Get the maximum score.
+	 * @return maximum score
+	 */
+	public int getMax() {
+		return max;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return String.format("Score Mean: %f, Standard Deviation: %f, Minimum: %d, Maximum: %d", mean,
+				getStandardDeviation(), min, max);
+	}
+}
@@ -0,0 +1,37 @@
+/**
+ * SearchStatsProvider - implemented by players that report the search effort of each move, so that the harness can
+ * record it alongside the move's latency (see MoveMetrics).  Each method describes the most recent getPlay call and
+ * should be cheap to call.
+ */
+public interface SearchStatsProvider {
+
+	/**
+	 * Get the number of simulations (rollouts) performed by the most recent getPlay call.
+	 * @return number of simulations
+	 */
+	long getMoveSimulations();
+
+	/**
+	 * Get the number of search nodes (plays made, real or simulated) visited by the most recent getPlay call.
+	 * @return number of nodes
+	 */
+	long getMoveNodes();
+
+	/**
+	 * Get the number of candidate plays considered by the most recent getPlay call.
+	 * @return number of candidate plays
+	 */
+	int getMoveCandidates();
+
+	/**
+	 * Get the depth limit of the simulations of the most recent getPlay call.
+	 * @return rollout depth limit
+	 */
+	int getMoveDepth();
+
+	/**
+	 * Return whether the most recent getPlay call stopped at a hard deadline and returned a fallback play.
+	 * @return whether the most recent move fell back
+	 */
+	boolean isMoveFallback();
+}
@@ -0,0 +1,17 @@
+/**
+ * SimulationAllocator - decides how a MonteCarloSearch spends its simulations across the candidate plays of a move,
+ * and which candidate it chooses.
+ * An allocator evaluates a candidate by making it on the search, simulating from it, and undoing it.  It must leave
+ * the search in the state it was given, and should stop early once the search's hard deadline has passed.
+ */
+public interface SimulationAllocator {
+
+	/**
+	 * choosePlay - chooses a play for the dealt card.
+	 * @param search - search positioned before the play, with the candidate plays in getCandidates()
+	 * @param card - dealt card
+	 * @param moveMillis - soft time budget of the move
+	 * @return the chosen row-major index, one of the candidate plays
+	 */
+	int choosePlay(MonteCarloSearch search, Card card, long moveMillis);
+}
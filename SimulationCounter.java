@@ -0,0 +1,12 @@
+/**
+ * SimulationCounter - implemented by players that perform Monte Carlo simulations, so that harness code can measure
+ * their simulation throughput.
+ */
+public interface SimulationCounter {
+
+	/**
+	 * Get the total number of simulations performed by the player.
+	 * @return total number of simulations
+	 */
+	long getSimulations();
+}
@@ -0,0 +1,13 @@
+/**
+ * TimeManager - decides how much of the remaining game time a MonteCarloSearch spends on its current move.
+ */
+public interface TimeManager {
+
+	/**
+	 * getMoveMillis - gets the soft time budget of the current move.
+	 * @param millisRemaining - game time remaining given to getPlay
+	 * @param remainingPlays - number of moves left in the game, including this one
+	 * @return milliseconds to spend on the move
+	 */
+	long getMoveMillis(long millisRemaining, int remainingPlays);
+}
@@ -0,0 +1,52 @@
+import java.util.ArrayList;
+
+/**
+ * UniformSimulationAllocator - evaluates each candidate play in turn on its own independent simulations for an equal
+ * share of the move's time (or a fixed number of simulations), and chooses the candidate with the highest average
+ * score, breaking ties randomly.  With a move depth limit of 0, simulations are deterministic, so each candidate is
+ * simulated once.  Prior statistics of the move (see MonteCarloSearch.setPriorStatistics) are added to each
+ * candidate's own simulations, and count toward a fixed number of simulations.
+ */
+public class UniformSimulationAllocator implements SimulationAllocator {
+
+	/* (non-Javadoc)
+	 * @see SimulationAllocator#choosePlay(MonteCarloSearch, Card, long)
+	 */
+	@Override
+	public int choosePlay(MonteCarloSearch search, Card card, long moveMillis) {
+		int numCandidates = search.getNumCandidates();
+		int[] candidates = search.getCandidates();
+		long millisPerMoveEval = moveMillis / numCandidates; // dividing time evenly across moves now considered
+		int fixedSimulations = search.getFixedSimulations();
+		double maxAverageScore = Double.NEGATIVE_INFINITY; // maximum average score found for moves so far
+		ArrayList<Integer> bestPlays = new ArrayList<Integer>(); // all plays yielding the maximum average score
+		for (int i = 0; i < numCandidates; i++) { // for each legal play position
+			if (search.isPastDeadline()) // fall back on the best play evaluated so far
+				break;
+			int play = candidates[i];
+			long endTime = System.currentTimeMillis() + millisPerMoveEval; // compute when MC simulations should end
+			search.makePlay(card, play / PokerSquares.SIZE, play % PokerSquares.SIZE);
+			int simCount = search.getPriorCount(play);
+			double scoreTotal = search.getPriorScoreTotal(play);
+			do { // perform as many MC simulations as possible through the allotted time (at least one)
+				scoreTotal += search.simulate();
+				simCount++;
+				if (search.getMoveDepth() == 0) // without random play, one simulation gives the same score as many
+					break;
+			} while ((fixedSimulations > 0 ? simCount < fixedSimulations : System.currentTimeMillis() < endTime)
+					&& !search.isPastDeadline());
+			search.undoPlay();
+			// update (if necessary) the maximum average score and the list of best plays
+			double averageScore = scoreTotal / simCount;
+			if (averageScore >= maxAverageScore) {
+				if (averageScore > maxAverageScore)
+					bestPlays.clear();
+				bestPlays.add(play);
+				maxAverageScore = averageScore;
+			}
+		}
+		if (bestPlays.isEmpty()) // the deadline passed before any play was evaluated
+			return candidates[0];
+		return bestPlays.get(search.getRandom().nextInt(bestPlays.size())); // choose a best play (breaking ties randomly)
+	}
+}
@@ -0,0 +1,191 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import pokersquares.jmh.HotPaths;
+
+/**
+ * HotPathStates - the hot paths benchmarked by pokersquares.jmh.HotPathBenchmark, over game states sampled from
+ * recorded games.  The benchmarks are in a named package, as JMH requires, so they reach the default-package game
+ * classes through this class (see HotPaths).
+ *
+ * A state is the partial grid after a uniformly random number of plays of a completed game of a GameLogSink log, or,
+ * without a log, of a game played by an analytic one-ply RandomMCPlayer.  The sampled hands are the rows and columns
+ * of the states' grids.
+ */
+public class HotPathStates implements HotPaths {
+
+	private static final int SIZE = PokerSquares.SIZE; // number of rows/columns in square grid
+	private static final int NUM_POS = SIZE * SIZE; // number of positions in square grid
+	private final ArrayList<Card[][]> grids = new ArrayList<Card[][]>(); // partial grid of each state
+	private final ArrayList<GameResult> games = new ArrayList<GameResult>(); // game of each state
+	private final ArrayList<Integer> statePlays = new ArrayList<Integer>(); // number of plays of each state
+	private Card[][] hands; // sampled hands
+	private int[] handPlays; // number of plays of the state of each hand
+	private String[] encodings; // heuristic encoding of each hand
+	private final PokerSquaresPointSystem system = PokerSquaresPointSystem.getBritishPointSystem(); // point system
+	private HashMap<String, Double> heuristic; // JIsraelsonPlayer heuristic map
+	private JIsraelsonPlayer player; // player whose leaf scores and simulations are benchmarked
+	private int playerPlays = 0; // number of plays made on the player's grid
+
+	/* (non-Javadoc)
+	 * @see pokersquares.jmh.HotPaths#sample(java.lang.String, int, long)
+	 */
+	@Override
+	public void sample(String logPath, int numStates, long seed) throws IOException {
+		JitWarmup.setEnabled(false); // JMH warms up
+		final Random random = new Random(seed);
+		if (logPath != null) {
+			try (GameLogReader reader = new GameLogReader(logPath)) {
+				for (GameResult game = reader.next(); game != null && games.size() < numStates; game = reader.next())
+					addState(game, random);
+			}
+		}
+		else {
+			PokerSquares game = new PokerSquares(new RandomMCPlayer(0, true), system);
+			game.setResultSink(new GameResultSink() {
+				@Override
+				public void record(GameResult result) {
+					addState(result, random);
+				}
+
+				@Override
+				public void close() {
+				}
+			});
+			game.setVerbose(false);
+			for (int i = 0; i < numStates; i++)
+				game.play(i);
+		}
+		if (games.isEmpty())
+			throw new IllegalStateException("No completed games to sample states from.");
+
+		hands = new Card[2 * SIZE * games.size()][];
+		handPlays = new int[hands.length];
+		encodings = new String[hands.length];
+		heuristic = JIsraelsonPlayer.loadEncoding(JIsraelsonPlayer.FILENAME);
+		for (int s = 0; s < games.size(); s++)
+			for (int line = 0; line < 2 * SIZE; line++) {
+				int h = 2 * SIZE * s + line;
+				hands[h] = new Card[SIZE];
+				for (int i = 0; i < SIZE; i++)
+					hands[h][i] = line < SIZE ? grids.get(s)[line][i] : grids.get(s)[i][line - SIZE];
+				handPlays[h] = statePlays.get(s);
+				encodings[h] = JIsraelsonPlayer.getHandEncoding(hands[h], handPlays[h]);
+			}
+		player = new JIsraelsonPlayer(3);
+		player.setPointSystem(system, 0L);
+		player.init();
+	}
+
+	/**
+	 * Add the state of a completed game after a uniformly random number of plays.
+	 * @param game recorded game
+	 * @param random pseudorandom number generator choosing the number of plays
+	 */
+	private void addState(GameResult game, Random random) {
+		if (!game.isComplete())
+			return;
+		int numPlays = random.nextInt(NUM_POS + 1);
+		Card[][] grid = new Card[SIZE][SIZE];
+		for (int i = 0; i < numPlays; i++)
+			grid[game.plays[i] / SIZE][game.plays[i] % SIZE] = Card.getCard(game.deal[i]);
+		grids.add(grid);
+		games.add(game);
+		statePlays.add(numPlays);
+	}
+
+	/* (non-Javadoc)
+	 * @see pokersquares.jmh.HotPaths#getNumStates()
+	 */
+	@Override
+	public int getNumStates() {
+		return games.size();
+	}
+
+	/* (non-Javadoc)
+	 * @see pokersquares.jmh.HotPaths#getNumHands()
+	 */
+	@Override
+	public int getNumHands() {
+		return hands.length;
+	}
+
+	/* (non-Javadoc)
+	 * @see pokersquares.jmh.HotPaths#getPokerHand(int)
+	 */
+	@Override
+	public int getPokerHand(int hand) {
+		return PokerHand.getPokerHand(hands[hand]).id;
+	}
+
+	/* (non-Javadoc)
+	 * @see pokersquares.jmh.HotPaths#getScore(int)
+	 */
+	@Override
+	public int getScore(int state) {
+		return system.getScore(grids.get(state));
+	}
+
+	/* (non-Javadoc)
+	 * @see pokersquares.jmh.HotPaths#getHandEncoding(int)
+	 */
+	@Override
+	public String getHandEncoding(int hand) {
+		return JIsraelsonPlayer.getHandEncoding(hands[hand], handPlays[hand]);
+	}
+
+	/* (non-Javadoc)
+	 * @see pokersquares.jmh.HotPaths#getPossiblePokerHands(int)
+	 */
+	@Override
+	public Object[] getPossiblePokerHands(int hand) {
+		return JIsraelsonPossiblePokerHand.getPossiblePokerHands(hands[hand]);
+	}
+
+	/* (non-Javadoc)
+	 * @see pokersquares.jmh.HotPaths#lookUpHeuristic(int)
+	 */
+	@Override
+	public double lookUpHeuristic(int hand) {
+		return heuristic.getOrDefault(encodings[hand], 0.0);
+	}
+
+	/* (non-Javadoc)
+	 * @see pokersquares.jmh.HotPaths#encodeAndLookUpHeuristic(int)
+	 */
+	@Override
+	public double encodeAndLookUpHeuristic(int hand) {
+		return heuristic.getOrDefault(JIsraelsonPlayer.getHandEncoding(hands[hand], handPlays[hand]), 0.0);
+	}
+
+	/* (non-Javadoc)
+	 * @see pokersquares.jmh.HotPaths#getLeafScore(int)
+	 */
+	@Override
+	public double getLeafScore(int state) {
+		return player.getLeafScore(grids.get(state), statePlays.get(state));
+	}
+
+	/* (non-Javadoc)
+	 * @see pokersquares.jmh.HotPaths#setPlayerState(int)
+	 */
+	@Override
+	public void setPlayerState(int state) {
+		for (; playerPlays > 0; playerPlays--)
+			player.undoPlay();
+		GameResult game = games.get(state);
+		playerPlays = statePlays.get(state);
+		for (int i = 0; i < playerPlays; i++)
+			player.makePlay(Card.getCard(game.deal[i]), game.plays[i] / SIZE, game.plays[i] % SIZE);
+	}
+
+	/* (non-Javadoc)
+	 * @see pokersquares.jmh.HotPaths#simPlay(int)
+	 */
+	@Override
+	public double simPlay(int depthLimit) {
+		return player.simPlay(depthLimit);
+	}
+}
@@ -0,0 +1,144 @@
+package pokersquares.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * HotPathBenchmark - JMH benchmarks of the scoring and search hot paths: PokerHand.getPokerHand,
+ * PokerSquaresPointSystem.getScore, JIsraelsonPlayer.getHandEncoding, JIsraelsonPossiblePokerHand.getPossiblePokerHands,
+ * heuristic lookup (from a precomputed encoding, with encoding, and through the player's line heuristic memo for a whole grid),
+ * and a full simPlay.  Each invocation takes the next of the states or hands sampled from recorded games (see
+ * HotPathStates), so the inputs follow the distribution of real play.
+ *
+ * Build with mvn package and run from the repository root, where the heuristic files are, with the GC profiler for
+ * allocation rates:
+ * <pre>
+ * java -jar jmh/target/benchmarks.jar HotPathBenchmark -prof gc [-p log=&lt;GameLogSink log&gt;]
+ * </pre>
+ * or run main, which adds the GC profiler itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HotPathBenchmark {
+
+	private static final int STATE_RESET_INTERVAL = 1024; // simPlay invocations between changes of sampled state
+	@Param({""})
+	public String log; // path of a GameLogSink log to sample states from, or empty to record games
+	@Param({"256"})
+	public int numStates; // number of sampled states
+	private HotPaths hotPaths; // the hot paths over the sampled states
+	private int numSampledStates, numHands; // numbers of sampled states and hands
+	private int state = 0, hand = 0; // indices of the current state and hand
+	private int simPlays = 0; // simPlay invocations since the last change of state
+
+	/**
+	 * Sample the states and hands.
+	 * @throws Exception if the game classes cannot be loaded or the log cannot be read
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		hotPaths = (HotPaths) Class.forName("HotPathStates").getDeclaredConstructor().newInstance();
+		hotPaths.sample(log.isEmpty() ? null : log, numStates, 0L);
+		numSampledStates = hotPaths.getNumStates();
+		numHands = hotPaths.getNumHands();
+		hotPaths.setPlayerState(state);
+	}
+
+	/**
+	 * Advance to the next sampled state.
+	 * @return state index
+	 */
+	private int nextState() {
+		if (++state == numSampledStates)
+			state = 0;
+		return state;
+	}
+
+	/**
+	 * Advance to the next sampled hand.
+	 * @return hand index
+	 */
+	private int nextHand() {
+		if (++hand == numHands)
+			hand = 0;
+		return hand;
+	}
+
+	@Benchmark
+	public int getPokerHand() {
+		return hotPaths.getPokerHand(nextHand());
+	}
+
+	@Benchmark
+	public int getScore() {
+		return hotPaths.getScore(nextState());
+	}
+
+	@Benchmark
+	public String getHandEncoding() {
+		return hotPaths.getHandEncoding(nextHand());
+	}
+
+	@Benchmark
+	public Object[] getPossiblePokerHands() {
+		return hotPaths.getPossiblePokerHands(nextHand());
+	}
+
+	@Benchmark
+	public double heuristicLookup() {
+		return hotPaths.lookUpHeuristic(nextHand());
+	}
+
+	@Benchmark
+	public double encodingAndLookup() {
+		return hotPaths.encodeAndLookUpHeuristic(nextHand());
+	}
+
+	@Benchmark
+	public double cachedLeafScore() {
+		return hotPaths.getLeafScore(nextState());
+	}
+
+	@Benchmark
+	public double simPlayDepth3() {
+		if (++simPlays == STATE_RESET_INTERVAL) { // move to the next sampled state (amortized over the interval)
+			simPlays = 0;
+			hotPaths.setPlayerState(nextState());
+		}
+		return hotPaths.simPlay(3);
+	}
+
+	/**
+	 * Run the benchmarks with the GC profiler.
+	 * @param args not used
+	 * @throws RunnerException if the benchmarks cannot be run
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(HotPathBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
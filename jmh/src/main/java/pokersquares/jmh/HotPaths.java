@@ -0,0 +1,94 @@
+package pokersquares.jmh;
+
+import java.io.IOException;
+
+/**
+ * HotPaths - the scoring and search hot paths of the game, over sampled game states and hands, as benchmarked by
+ * HotPathBenchmark.  JMH benchmarks must be in a named package, which cannot refer to the default-package game
+ * classes, so the benchmarks reach them through this interface, implemented by the default-package HotPathStates.
+ */
+public interface HotPaths {
+
+	/**
+	 * Sample game states from recorded games.
+	 * @param logPath path of a log written by GameLogSink, or null to record games of an analytic one-ply RandomMCPlayer
+	 * @param numStates maximum number of states
+	 * @param seed seed of the pseudorandom number generator choosing the number of plays of each state
+	 * @throws IOException if the log cannot be read
+	 */
+	void sample(String logPath, int numStates, long seed) throws IOException;
+
+	/**
+	 * Get the number of sampled states.
+	 * @return number of states
+	 */
+	int getNumStates();
+
+	/**
+	 * Get the number of sampled hands, the rows and columns of the states' grids.
+	 * @return number of hands
+	 */
+	int getNumHands();
+
+	/**
+	 * Classify a hand with PokerHand.getPokerHand.
+	 * @param hand hand index
+	 * @return poker hand id
+	 */
+	int getPokerHand(int hand);
+
+	/**
+	 * Score a state's grid with PokerSquaresPointSystem.getScore.
+	 * @param state state index
+	 * @return score
+	 */
+	int getScore(int state);
+
+	/**
+	 * Encode a hand with JIsraelsonPlayer.getHandEncoding.
+	 * @param hand hand index
+	 * @return encoding
+	 */
+	String getHandEncoding(int hand);
+
+	/**
+	 * Enumerate the possible poker hands of a hand with JIsraelsonPossiblePokerHand.getPossiblePokerHands.
+	 * @param hand hand index
+	 * @return possible poker hands
+	 */
+	Object[] getPossiblePokerHands(int hand);
+
+	/**
+	 * Look up the precomputed encoding of a hand in the JIsraelsonPlayer heuristic map.
+	 * @param hand hand index
+	 * @return heuristic value
+	 */
+	double lookUpHeuristic(int hand);
+
+	/**
+	 * Encode a hand and look it up in the JIsraelsonPlayer heuristic map.
+	 * @param hand hand index
+	 * @return heuristic value
+	 */
+	double encodeAndLookUpHeuristic(int hand);
+
+	/**
+	 * Score a state's grid with the JIsraelsonPlayer heuristic of all its lines, through the player's line heuristic memo.
+	 * @param state state index
+	 * @return leaf score
+	 */
+	double getLeafScore(int state);
+
+	/**
+	 * Make the plays of a state on the JIsraelsonPlayer's grid, undoing those of the previous state.
+	 * @param state state index
+	 */
+	void setPlayerState(int state);
+
+	/**
+	 * Perform one simulation from the JIsraelsonPlayer's grid with MonteCarloPlayer.simPlay.
+	 * @param depthLimit depth limit
+	 * @return leaf score of the simulated grid
+	 */
+	double simPlay(int depthLimit);
+}